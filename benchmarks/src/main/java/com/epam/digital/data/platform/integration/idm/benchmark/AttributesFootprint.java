@@ -0,0 +1,79 @@
+/*
+ * Copyright 2023 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.idm.benchmark;
+
+import com.epam.digital.data.platform.integration.idm.model.AttributeDictionary;
+import com.epam.digital.data.platform.integration.idm.model.CompactAttributeMap;
+import com.epam.digital.data.platform.integration.idm.model.IdmClientProperties;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.openjdk.jol.info.GraphLayout;
+
+/**
+ * Compares retained heap of user attributes stored as deserialized from keycloak response (hash
+ * map of array lists with own strings per user) against {@link CompactAttributeMap compact
+ * attribute maps}. Sizes are measured by JOL walking the object graph, so shared strings are
+ * counted once. Footprint of the dictionary itself is included into the compact size.
+ * <p>
+ * Arguments: user count (100000), attribute count (20), organization count (100).
+ */
+public final class AttributesFootprint {
+
+  private AttributesFootprint() {
+  }
+
+  public static void main(String[] args) {
+    var userCount = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+    var attributeCount = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+    var organizationCount = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+
+    var deserialized = new ArrayList<Map<String, List<String>>>(userCount);
+    for (var user : SyntheticUsers.generate(userCount, attributeCount, organizationCount)) {
+      deserialized.add(deserialize(user.getAttributes()));
+    }
+    var dictionary = new AttributeDictionary(new IdmClientProperties.CompactAttributes());
+    var compact = new ArrayList<Map<String, List<String>>>(userCount);
+    for (var attributes : deserialized) {
+      compact.add(CompactAttributeMap.of(attributes, dictionary));
+    }
+
+    var deserializedSize = GraphLayout.parseInstance(deserialized).totalSize();
+    var compactSize = GraphLayout.parseInstance(compact, dictionary).totalSize();
+    System.out.printf("users: %d, attributes: %d, organizations: %d%n", userCount,
+        attributeCount, organizationCount);
+    System.out.printf("hash map: %,d bytes (%,d per user)%n", deserializedSize,
+        deserializedSize / userCount);
+    System.out.printf("compact:  %,d bytes (%,d per user), %.1f%% of hash map%n", compactSize,
+        compactSize / userCount, 100.0 * compactSize / deserializedSize);
+  }
+
+  /**
+   * Copy of attributes as they are built by jackson: own key and value strings and array lists.
+   */
+  private static Map<String, List<String>> deserialize(Map<String, List<String>> attributes) {
+    var copy = new HashMap<String, List<String>>();
+    attributes.forEach((key, values) -> {
+      var valuesCopy = new ArrayList<String>(values.size());
+      values.forEach(value -> valuesCopy.add(new String(value)));
+      copy.put(new String(key), valuesCopy);
+    });
+    return copy;
+  }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2023 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.integration.idm.benchmark;
+
+import com.epam.digital.data.platform.integration.idm.client.KeycloakAdminClient;
+import com.epam.digital.data.platform.integration.idm.mapper.IdmUsersMapper;
+import com.epam.digital.data.platform.integration.idm.model.IdmUser;
+import com.epam.digital.data.platform.integration.idm.model.IdmUsersResponse;
+import com.epam.digital.data.platform.integration.idm.model.SearchUsersByAttributesResponseDto;
+import com.epam.digital.data.platform.integration.idm.service.KeycloakIdmService;
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.keycloak.admin.client.resource.RealmResource;
+import org.keycloak.admin.client.resource.RoleResource;
+import org.keycloak.admin.client.resource.RolesResource;
+import org.keycloak.representations.idm.UserRepresentation;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures mapping of keycloak users that runs on every user search and role members call:
+ * {@link IdmUsersMapper} methods, {@link KeycloakIdmService} mapping of role members and
+ * {@link KeycloakAdminClient} request wrapping.
+ * <p>
+ * Keycloak calls are answered in-process by reflective stubs returning pre-built users, so only
+ * the client side work is measured. Run with {@code -prof gc} to see allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IdmUsersMappingBenchmark {
+
+  private static final String ROLE = "officer";
+
+  @Param({"10", "1000", "100000"})
+  private int userCount;
+
+  @Param({"20"})
+  private int attributeCount;
+
+  private final IdmUsersMapper mapper = Mappers.getMapper(IdmUsersMapper.class);
+
+  private List<UserRepresentation> users;
+  private SearchUsersByAttributesResponseDto searchResponse;
+  private RealmResource realmResource;
+  private KeycloakAdminClient client;
+  private KeycloakIdmService service;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    users = SyntheticUsers.generate(userCount, attributeCount);
+    searchResponse = new SearchUsersByAttributesResponseDto();
+    searchResponse.setUsers(users);
+
+    Set<UserRepresentation> roleMembers = new LinkedHashSet<>(users);
+    var roleResource = stub(RoleResource.class,
+        method -> "getRoleUserMembers".equals(method) ? roleMembers : null);
+    var rolesResource = stub(RolesResource.class,
+        method -> "get".equals(method) ? roleResource : null);
+    realmResource = stub(RealmResource.class,
+        method -> "roles".equals(method) ? rolesResource : null);
+
+    client = new KeycloakAdminClient(StubKeycloak.REALM, StubKeycloak.SERVER_URL, null) {
+      @Override
+      public RealmResource getRealmResource() {
+        return realmResource;
+      }
+    };
+    service = new KeycloakIdmService(client, mapper);
+  }
+
+  @Benchmark
+  public List<IdmUser> mapToIdmUsersSortedByFullName() {
+    return mapper.mapToIdmUsersSortedByFullName(users);
+  }
+
+  @Benchmark
+  public IdmUsersResponse toIdmUsersResponse() {
+    return mapper.toIdmUsersResponse(searchResponse);
+  }
+
+  /**
+   * Keycloak request wrapping of the client with its supplier lambdas and logging.
+   */
+  @Benchmark
+  public Collection<UserRepresentation> clientGetRoleUserMembers() {
+    return client.getRoleUserMembers(realmResource, ROLE, 0, userCount);
+  }
+
+  /**
+   * Client call followed by {@code KeycloakIdmService#mapToIdmUsers}.
+   */
+  @Benchmark
+  public List<IdmUser> serviceGetRoleUserMembers() {
+    return service.getRoleUserMembers(ROLE, 0, userCount);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> T stub(Class<T> type, Function<String, Object> answers) {
+    return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+        (proxy, method, args) -> answers.apply(method.getName()));
+  }
+}
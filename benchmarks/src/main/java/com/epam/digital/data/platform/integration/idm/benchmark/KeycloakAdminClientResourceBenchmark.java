@@ -0,0 +1,95 @@
+/*
+ * Copyright 2023 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.integration.idm.benchmark;
+
+import com.epam.digital.data.platform.integration.idm.client.KeycloakAdminClient;
+import com.epam.digital.data.platform.integration.idm.model.SearchUsersByAttributesRequestDto;
+import com.epam.digital.data.platform.integration.idm.model.SearchUsersByAttributesResponseDto;
+import com.epam.digital.data.platform.integration.idm.resource.UsersExtendedResource;
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+import org.keycloak.admin.client.Keycloak;
+import org.keycloak.admin.client.resource.RealmResource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares per-call creation of realm resource and {@link UsersExtendedResource} proxy with the
+ * instances memoized by {@link KeycloakAdminClient}.
+ * <p>
+ * Run with {@code -prof gc} to see the allocation rate difference.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KeycloakAdminClientResourceBenchmark {
+
+  private static final String SEARCH_RESPONSE =
+      "{\"users\":[],\"pagination\":{\"continueToken\":null}}";
+
+  private Keycloak keycloak;
+  private KeycloakAdminClient client;
+  private SearchUsersByAttributesRequestDto request;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    keycloak = new StubKeycloak()
+        .respond("/users/v2/search-by-attributes", SEARCH_RESPONSE)
+        .buildKeycloak();
+    client = new KeycloakAdminClient(StubKeycloak.REALM, StubKeycloak.SERVER_URL, keycloak);
+    request = SearchUsersByAttributesRequestDto.builder().build();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    keycloak.close();
+  }
+
+  @Benchmark
+  public RealmResource realmResourcePerCall() {
+    return keycloak.realm(StubKeycloak.REALM);
+  }
+
+  @Benchmark
+  public RealmResource realmResourceMemoized() {
+    return client.getRealmResource();
+  }
+
+  @Benchmark
+  public SearchUsersByAttributesResponseDto searchWithProxyPerCall() {
+    return keycloak.proxy(UsersExtendedResource.class, URI.create(StubKeycloak.SERVER_URL))
+        .searchUsersByAttributes(StubKeycloak.REALM, request);
+  }
+
+  @Benchmark
+  public SearchUsersByAttributesResponseDto searchWithMemoizedProxy() {
+    return client.searchUsersByAttributes(request);
+  }
+}
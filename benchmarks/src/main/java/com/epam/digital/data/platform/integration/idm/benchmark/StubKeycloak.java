@@ -0,0 +1,89 @@
+/*
+ * Copyright 2023 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.integration.idm.benchmark;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.ws.rs.client.ClientRequestContext;
+import javax.ws.rs.client.ClientRequestFilter;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import org.jboss.resteasy.client.jaxrs.ResteasyClientBuilder;
+import org.keycloak.OAuth2Constants;
+import org.keycloak.admin.client.Keycloak;
+import org.keycloak.admin.client.KeycloakBuilder;
+
+/**
+ * In-process keycloak stand-in for benchmarks. Every request is answered by a client request
+ * filter with a canned json body selected by the request path suffix, so the measured time
+ * contains the whole client stack (proxy invocation, filters, json (de)serialization) but no
+ * network.
+ */
+public class StubKeycloak implements ClientRequestFilter {
+
+  public static final String SERVER_URL = "http://keycloak.stub/auth";
+  public static final String REALM = "benchmark-realm";
+
+  private static final String TOKEN_RESPONSE =
+      "{\"access_token\":\"token\",\"expires_in\":86400,\"token_type\":\"Bearer\"}";
+
+  private final Map<String, String> responses = new ConcurrentHashMap<>();
+
+  /**
+   * Register json body returned for every request which path ends with given suffix.
+   *
+   * @param pathSuffix request path suffix
+   * @param json       response body
+   * @return this stub
+   */
+  public StubKeycloak respond(String pathSuffix, String json) {
+    responses.put(pathSuffix, json);
+    return this;
+  }
+
+  public Keycloak buildKeycloak() {
+    var resteasyClient = ((ResteasyClientBuilder) ResteasyClientBuilder.newBuilder())
+        .register(this)
+        .build();
+    return KeycloakBuilder.builder()
+        .serverUrl(SERVER_URL)
+        .realm(REALM)
+        .clientId("benchmark-client")
+        .clientSecret("benchmark-secret")
+        .grantType(OAuth2Constants.CLIENT_CREDENTIALS)
+        .resteasyClient(resteasyClient)
+        .build();
+  }
+
+  @Override
+  public void filter(ClientRequestContext requestContext) {
+    var path = requestContext.getUri().getPath();
+    if (path.endsWith("/protocol/openid-connect/token")) {
+      requestContext.abortWith(json(TOKEN_RESPONSE));
+      return;
+    }
+    responses.entrySet().stream()
+        .filter(entry -> path.endsWith(entry.getKey()))
+        .findFirst()
+        .ifPresentOrElse(entry -> requestContext.abortWith(json(entry.getValue())),
+            () -> requestContext.abortWith(Response.status(Response.Status.NOT_FOUND).build()));
+  }
+
+  private static Response json(String body) {
+    return Response.ok(body, MediaType.APPLICATION_JSON_TYPE).build();
+  }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2023 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.integration.idm.benchmark;
+
+import com.epam.digital.data.platform.integration.idm.model.KeycloakSystemAttribute;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.keycloak.representations.idm.UserRepresentation;
+
+/**
+ * Deterministic generator of user representations shaped like officers of a registry realm: full
+ * name, tax codes, organization and region attributes plus filler attributes. Every tenth user
+ * is a service account without full name attribute.
+ */
+public final class SyntheticUsers {
+
+  private static final String ALPHABET = "абвгґдеєжзиіїйклмнопрстуфхцчшщьюя";
+
+  private SyntheticUsers() {
+  }
+
+  /**
+   * @param count          number of users
+   * @param attributeCount number of attributes of every user with full name
+   * @return users in random order of full names
+   */
+  public static List<UserRepresentation> generate(int count, int attributeCount) {
+    return generate(count, attributeCount, 0);
+  }
+
+  /**
+   * @param count             number of users
+   * @param attributeCount    number of attributes of every user with full name
+   * @param organizationCount number of distinct organizations, organization, region and filler
+   *                          attributes of users are taken from them; every user has own values if
+   *                          it's not positive
+   * @return users in random order of full names
+   */
+  public static List<UserRepresentation> generate(int count, int attributeCount,
+      int organizationCount) {
+    var random = new Random(count * 31L + attributeCount);
+    var organizations = new ArrayList<Map<String, List<String>>>();
+    var organizationRandom = new Random(organizationCount);
+    for (var i = 0; i < organizationCount; i++) {
+      organizations.add(organizationAttributes(organizationRandom, attributeCount));
+    }
+    var users = new ArrayList<UserRepresentation>(count);
+    for (var i = 0; i < count; i++) {
+      var user = new UserRepresentation();
+      user.setId(String.format("00000000-0000-0000-0000-%012d", i));
+      user.setUsername("user-" + i);
+      user.setEnabled(true);
+      var attributes = new HashMap<String, List<String>>();
+      if (i % 10 != 0) {
+        attributes.put(KeycloakSystemAttribute.FULL_NAME_ATTRIBUTE,
+            List.of(word(random, 10) + " " + word(random, 8) + " " + word(random, 12)));
+        attributes.put("drfo", List.of(digits(random, 10)));
+        if (organizations.isEmpty()) {
+          attributes.putAll(organizationAttributes(random, attributeCount));
+        } else {
+          attributes.putAll(organizations.get(random.nextInt(organizations.size())));
+        }
+      }
+      user.setAttributes(attributes);
+      users.add(user);
+    }
+    return users;
+  }
+
+  private static Map<String, List<String>> organizationAttributes(Random random,
+      int attributeCount) {
+    var attributes = new HashMap<String, List<String>>();
+    attributes.put("edrpou", List.of(digits(random, 8)));
+    attributes.put("KATOTTG", List.of("UA" + digits(random, 17)));
+    for (var j = attributes.size() + 2; j < attributeCount; j++) {
+      attributes.put("attribute" + j, List.of(word(random, 16)));
+    }
+    return attributes;
+  }
+
+  private static String word(Random random, int length) {
+    var builder = new StringBuilder(length);
+    for (var i = 0; i < length; i++) {
+      builder.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+    }
+    return builder.toString();
+  }
+
+  private static String digits(Random random, int length) {
+    var builder = new StringBuilder(length);
+    for (var i = 0; i < length; i++) {
+      builder.append(random.nextInt(10));
+    }
+    return builder.toString();
+  }
+}
@@ -33,10 +33,14 @@ import org.springframework.stereotype.Component;
 public class WireMockConfig {
 
   @Bean
-  public WireMockServer keycloakMockServer(@Value("${keycloak.url}") String urlStr)
+  public WireMockServer keycloakMockServer(@Value("${keycloak.url}") String urlStr,
+      @Value("${wiremock.container-threads:10}") int containerThreads,
+      @Value("${wiremock.asynchronous-response-enabled:false}") boolean asynchronousResponse)
       throws MalformedURLException {
     URL url = new URL(urlStr);
-    WireMockServer wireMockServer = new WireMockServer(wireMockConfig().port(url.getPort()));
+    WireMockServer wireMockServer = new WireMockServer(wireMockConfig().port(url.getPort())
+        .containerThreads(containerThreads)
+        .asynchronousResponseEnabled(asynchronousResponse));
     WireMock.configureFor(url.getHost(), url.getPort());
     wireMockServer.start();
     return wireMockServer;
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2023 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.integration.idm.load;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.epam.digital.data.platform.integration.idm.client.TestIdmConfig;
+import com.epam.digital.data.platform.integration.idm.config.WireMockConfig;
+import com.epam.digital.data.platform.integration.idm.factory.IdmServiceFactory;
+import com.epam.digital.data.platform.integration.idm.model.KeycloakSystemAttribute;
+import com.epam.digital.data.platform.integration.idm.model.SearchUsersByAttributesRequestDto;
+import com.epam.digital.data.platform.integration.idm.service.IdmService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.keycloak.representations.idm.RoleRepresentation;
+import org.keycloak.representations.idm.UserRepresentation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+/**
+ * Drives {@link IdmService} from many threads against WireMock keycloak stand-in and reports
+ * throughput and latency percentiles per operation. Run with {@code mvn verify -Pload-test},
+ * the load is tuned with {@code load.*} system properties.
+ */
+@Slf4j
+@ActiveProfiles("test")
+@EnableAutoConfiguration
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(classes = {WireMockConfig.class, TestIdmConfig.class})
+@EnableFeignClients
+class IdmServiceLoadTest {
+
+  private static final String REALM = "testRealm";
+
+  @Autowired
+  private WireMockServer keycloakMockServer;
+  @Autowired
+  private IdmServiceFactory idmServiceFactory;
+
+  @Value("${keycloak.test.clientId}")
+  private String clientId;
+  @Value("${keycloak.test.clientSecret}")
+  private String clientSecret;
+
+  @Value("${load.threads:16}")
+  private int threads;
+  @Value("${load.duration:PT30S}")
+  private Duration duration;
+  @Value("${load.latency:PT0.02S}")
+  private Duration latency;
+  @Value("${load.payload-users:100}")
+  private int payloadUsers;
+  @Value("${load.token-ttl:PT1M}")
+  private Duration tokenTtl;
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  @BeforeEach
+  void mockKeycloak() {
+    var delay = (int) latency.toMillis();
+    keycloakMockServer.stubFor(
+        post("/auth/realms/" + REALM + "/protocol/openid-connect/token")
+            .willReturn(aResponse().withStatus(200).withFixedDelay(delay)
+                .withHeader("Content-type", "application/json")
+                .withBody(String.format(
+                    "{\"access_token\":\"load-test-token\",\"expires_in\":%d,"
+                        + "\"token_type\":\"Bearer\"}", tokenTtl.toSeconds()))));
+    keycloakMockServer.stubFor(
+        post(urlPathEqualTo("/auth/realms/" + REALM + "/users/v2/search-by-attributes"))
+            .willReturn(aResponse().withStatus(200).withFixedDelay(delay)
+                .withHeader("Content-type", "application/json")
+                .withBody(toJson(Map.of("users", users(payloadUsers),
+                    "pagination", Map.of("continueToken", -1))))));
+    keycloakMockServer.stubFor(
+        get(urlPathEqualTo("/auth/admin/realms/" + REALM + "/users"))
+            .willReturn(aResponse().withStatus(200).withFixedDelay(delay)
+                .withHeader("Content-type", "application/json")
+                .withBody(toJson(users(1)))));
+    keycloakMockServer.stubFor(
+        get(urlPathEqualTo("/auth/admin/realms/" + REALM + "/roles"))
+            .willReturn(aResponse().withStatus(200).withFixedDelay(delay)
+                .withHeader("Content-type", "application/json")
+                .withBody(toJson(List.of(new RoleRepresentation("officer", null, false))))));
+  }
+
+  @Test
+  void shouldSustainLoad() throws InterruptedException {
+    var idmService = idmServiceFactory.getIdmService(REALM, clientId, clientSecret);
+    var searchRequest = SearchUsersByAttributesRequestDto.builder()
+        .attributesEquals(Map.of("drfo", List.of("1234567890")))
+        .build();
+    var operations = List.of(
+        operation("searchUsers", service -> service.searchUsers(searchRequest)),
+        operation("getUserByUserName", service -> service.getUserByUserName("user-0")),
+        operation("getRoles", IdmService::getRoles));
+    var report = new LatencyReport();
+    var executor = Executors.newFixedThreadPool(threads);
+    var finished = new CountDownLatch(threads);
+    var deadline = System.nanoTime() + duration.toNanos();
+
+    log.info("Starting load: {} threads, {} duration, {} latency, {} users per search page",
+        threads, duration, latency, payloadUsers);
+    for (var thread = 0; thread < threads; thread++) {
+      var offset = thread;
+      executor.execute(() -> {
+        for (var i = offset; System.nanoTime() < deadline; i++) {
+          var operation = operations.get(i % operations.size());
+          var startedAt = System.nanoTime();
+          var succeeded = true;
+          try {
+            operation.getValue().accept(idmService);
+          } catch (RuntimeException exception) {
+            log.warn("Operation {} failed", operation.getKey(), exception);
+            succeeded = false;
+          }
+          report.record(operation.getKey(), System.nanoTime() - startedAt, succeeded);
+        }
+        finished.countDown();
+      });
+    }
+    finished.await(duration.toMillis() * 2 + 60_000, TimeUnit.MILLISECONDS);
+    executor.shutdownNow();
+
+    log.info("Load test report:\n{}", report.format(duration));
+    log.info("Connection pool: {}", idmServiceFactory.getConnectionPoolStats());
+    assertThat(finished.getCount()).isZero();
+    assertThat(report.errors()).isZero();
+  }
+
+  private static Map.Entry<String, Consumer<IdmService>> operation(String name,
+      Consumer<IdmService> operation) {
+    return Map.entry(name, operation);
+  }
+
+  private List<UserRepresentation> users(int count) {
+    var users = new ArrayList<UserRepresentation>(count);
+    for (var i = 0; i < count; i++) {
+      var user = new UserRepresentation();
+      user.setId("id-" + i);
+      user.setUsername("user-" + i);
+      user.setEnabled(true);
+      user.setAttributes(Map.of(
+          KeycloakSystemAttribute.FULL_NAME_ATTRIBUTE, List.of("Full Name " + i),
+          "drfo", List.of("1234567890"),
+          "edrpou", List.of("12345678"),
+          "KATOTTG", List.of("UA01020030040050060")));
+      users.add(user);
+    }
+    return users;
+  }
+
+  @SneakyThrows
+  private String toJson(Object value) {
+    return objectMapper.writeValueAsString(value);
+  }
+}
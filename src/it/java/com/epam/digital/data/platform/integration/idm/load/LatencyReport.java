@@ -0,0 +1,92 @@
+/*
+ * Copyright 2023 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.integration.idm.load;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Collects latencies of load test operations and reports throughput and latency percentiles per
+ * operation.
+ */
+public class LatencyReport {
+
+  private final Map<String, Recorder> recorders = new ConcurrentHashMap<>();
+
+  public void record(String operation, long latencyNanos, boolean succeeded) {
+    recorders.computeIfAbsent(operation, key -> new Recorder()).record(latencyNanos, succeeded);
+  }
+
+  public long errors() {
+    return recorders.values().stream().mapToLong(Recorder::errors).sum();
+  }
+
+  /**
+   * @param duration duration of the load
+   * @return table with count, errors, throughput and p50/p99/p999 latency per operation
+   */
+  public String format(Duration duration) {
+    var seconds = duration.toMillis() / 1000d;
+    var builder = new StringBuilder(String.format("%-24s %10s %8s %10s %10s %10s %10s%n",
+        "operation", "count", "errors", "ops/s", "p50 ms", "p99 ms", "p999 ms"));
+    new TreeMap<>(recorders).forEach((operation, recorder) -> {
+      var latencies = recorder.sortedLatencies();
+      builder.append(String.format("%-24s %10d %8d %10.1f %10.2f %10.2f %10.2f%n", operation,
+          latencies.length, recorder.errors(), latencies.length / seconds,
+          percentile(latencies, 0.5), percentile(latencies, 0.99), percentile(latencies, 0.999)));
+    });
+    return builder.toString();
+  }
+
+  private static double percentile(long[] sortedLatencies, double percentile) {
+    if (sortedLatencies.length == 0) {
+      return 0;
+    }
+    var index = (int) Math.ceil(percentile * sortedLatencies.length) - 1;
+    return sortedLatencies[Math.max(index, 0)] / 1e6;
+  }
+
+  private static class Recorder {
+
+    private long[] latencies = new long[1024];
+    private int count;
+    private long errors;
+
+    synchronized void record(long latencyNanos, boolean succeeded) {
+      if (count == latencies.length) {
+        latencies = Arrays.copyOf(latencies, count * 2);
+      }
+      latencies[count++] = latencyNanos;
+      if (!succeeded) {
+        errors++;
+      }
+    }
+
+    synchronized long errors() {
+      return errors;
+    }
+
+    synchronized long[] sortedLatencies() {
+      var result = Arrays.copyOf(latencies, count);
+      Arrays.sort(result);
+      return result;
+    }
+  }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2023 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.integration.idm.bulk;
+
+import com.epam.digital.data.platform.integration.idm.bulk.UserCreationResult.Status;
+import com.epam.digital.data.platform.integration.idm.service.IdmService;
+import com.epam.digital.data.platform.integration.idm.service.ParallelExecution;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Creates users with their roles concurrently.
+ * <p>
+ * Items are pulled from the source stream only when a worker is free, so at most
+ * {@code parallelism} items are held in memory at once. Completed items are marked in
+ * {@link CheckpointStore}, a restarted run skips them. If user creation fails because the user
+ * already exists (e.g. the previous run was interrupted before the checkpoint), its roles are
+ * assigned and the user is reported as {@link Status#RECOVERED}.
+ */
+@Slf4j
+public class BulkUserCreationPipeline {
+
+  private static final int DEFAULT_PARALLELISM = 8;
+  private static final long DEFAULT_PROGRESS_LOG_INTERVAL = 1000;
+
+  private final IdmService idmService;
+  private final Executor executor;
+  private final int parallelism;
+  private final CheckpointStore checkpointStore;
+  private final long progressLogInterval;
+
+  /**
+   * @param executor            executor of workers, users are created sequentially if it's
+   *                            {@code null}
+   * @param checkpointStore     store of completed users, the run isn't restartable if it's
+   *                            {@code null}
+   * @param progressLogInterval number of processed users between progress log records
+   */
+  @Builder
+  private BulkUserCreationPipeline(IdmService idmService, Executor executor, Integer parallelism,
+      CheckpointStore checkpointStore, Long progressLogInterval) {
+    this.idmService = Objects.requireNonNull(idmService, "Idm service is required");
+    this.executor = executor;
+    this.parallelism = Objects.isNull(executor) ? 1
+        : Objects.requireNonNullElse(parallelism, DEFAULT_PARALLELISM);
+    this.checkpointStore = checkpointStore;
+    this.progressLogInterval = Objects.requireNonNullElse(progressLogInterval,
+        DEFAULT_PROGRESS_LOG_INTERVAL);
+  }
+
+  /**
+   * Create users of given stream. Failure of a user doesn't stop the run.
+   *
+   * @param items users with their roles, username is the key of an item
+   * @return report with outcome per user
+   */
+  public BulkUserCreationReport run(Stream<UserCreationItem> items) {
+    var completed = Objects.isNull(checkpointStore) ? Set.<String>of()
+        : checkpointStore.loadCompleted();
+    log.info("Starting bulk user creation, {} users are already completed", completed.size());
+    var results = Collections.synchronizedList(new ArrayList<UserCreationResult>());
+    var processed = new AtomicLong();
+    var startedAt = System.nanoTime();
+    ParallelExecution.forEach(items::iterator, parallelism, executor, item -> {
+      var username = item.getUser().getUsername();
+      var result = completed.contains(username)
+          ? UserCreationResult.builder().username(username).status(Status.SKIPPED).build()
+          : create(item);
+      results.add(result);
+      var count = processed.incrementAndGet();
+      if (count % progressLogInterval == 0) {
+        log.info("Bulk user creation processed {} users, {} users/s", count,
+            String.format("%.1f", count * 1e9 / (System.nanoTime() - startedAt)));
+      }
+    });
+    var report = BulkUserCreationReport.builder()
+        .results(List.copyOf(results))
+        .duration(Duration.ofNanos(System.nanoTime() - startedAt))
+        .build();
+    log.info("Bulk user creation finished in {}: created {}, recovered {}, skipped {}, failed {}, "
+            + "{} users/s", report.getDuration(), report.count(Status.CREATED),
+        report.count(Status.RECOVERED), report.count(Status.SKIPPED),
+        report.count(Status.FAILED), String.format("%.1f", report.getThroughput()));
+    return report;
+  }
+
+  private UserCreationResult create(UserCreationItem item) {
+    var username = item.getUser().getUsername();
+    var status = Status.CREATED;
+    try {
+      try {
+        idmService.createUserRepresentation(item.getUser(), item.getRoles());
+      } catch (RuntimeException exception) {
+        if (!userExists(username)) {
+          throw exception;
+        }
+        log.info("User {} already exists, assigning roles", username);
+        idmService.addRoles(username, item.getRoles());
+        status = Status.RECOVERED;
+      }
+      if (Objects.nonNull(checkpointStore)) {
+        checkpointStore.markCompleted(username);
+      }
+      return UserCreationResult.builder().username(username).status(status).build();
+    } catch (RuntimeException exception) {
+      log.warn("Couldn't create user {}", username, exception);
+      return UserCreationResult.builder().username(username).status(Status.FAILED)
+          .errorMessage(exception.getMessage()).build();
+    }
+  }
+
+  /**
+   * @return whether the user exists, failure of the lookup fails the user
+   */
+  private boolean userExists(String username) {
+    return !idmService.getUserByUserName(username).isEmpty();
+  }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2023 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.integration.idm.bulk;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Report of bulk user creation with outcome per user in the order of processing.
+ */
+@Value
+@Builder
+public class BulkUserCreationReport {
+
+  List<UserCreationResult> results;
+  Duration duration;
+
+  public long count(UserCreationResult.Status status) {
+    return results.stream().filter(result -> result.getStatus() == status).count();
+  }
+
+  public List<UserCreationResult> getFailed() {
+    return results.stream()
+        .filter(result -> result.getStatus() == UserCreationResult.Status.FAILED)
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * @return processed users per second excluding skipped ones
+   */
+  public double getThroughput() {
+    var processed = results.size() - count(UserCreationResult.Status.SKIPPED);
+    var millis = Math.max(duration.toMillis(), 1);
+    return processed * 1000d / millis;
+  }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2023 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.integration.idm.bulk;
+
+import java.util.Set;
+
+/**
+ * Store of completed items of bulk operation, so an interrupted operation could be restarted
+ * skipping already completed items.
+ */
+public interface CheckpointStore {
+
+  /**
+   * @return keys of items completed by previous runs
+   */
+  Set<String> loadCompleted();
+
+  /**
+   * Mark item as completed. Called concurrently.
+   *
+   * @param key item key
+   */
+  void markCompleted(String key);
+}
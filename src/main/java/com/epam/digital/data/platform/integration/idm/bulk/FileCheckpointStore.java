@@ -0,0 +1,82 @@
+/*
+ * Copyright 2023 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.integration.idm.bulk;
+
+import com.epam.digital.data.platform.integration.idm.exception.KeycloakException;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * {@link CheckpointStore} that appends keys of completed items to a file line by line. Every key
+ * is flushed before {@link #markCompleted(String)} returns, so the file survives process failure.
+ */
+public class FileCheckpointStore implements CheckpointStore, Closeable {
+
+  private final Path path;
+  private BufferedWriter writer;
+
+  public FileCheckpointStore(Path path) {
+    this.path = path;
+  }
+
+  @Override
+  public Set<String> loadCompleted() {
+    if (!Files.exists(path)) {
+      return Set.of();
+    }
+    try (var lines = Files.lines(path, StandardCharsets.UTF_8)) {
+      var completed = new HashSet<String>();
+      lines.filter(line -> !line.isEmpty()).forEach(completed::add);
+      return completed;
+    } catch (IOException exception) {
+      throw new KeycloakException(String.format("Couldn't read checkpoint file %s", path),
+          exception);
+    }
+  }
+
+  @Override
+  public synchronized void markCompleted(String key) {
+    try {
+      if (Objects.isNull(writer)) {
+        writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+            StandardOpenOption.APPEND);
+      }
+      writer.write(key);
+      writer.newLine();
+      writer.flush();
+    } catch (IOException exception) {
+      throw new KeycloakException(String.format("Couldn't write checkpoint file %s", path),
+          exception);
+    }
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    if (Objects.nonNull(writer)) {
+      writer.close();
+      writer = null;
+    }
+  }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2023 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.integration.idm.bulk;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Outcome of creation of a single user.
+ */
+@Value
+@Builder
+public class UserCreationResult {
+
+  String username;
+  Status status;
+  String errorMessage;
+
+  public enum Status {
+    /**
+     * User is created and roles are assigned.
+     */
+    CREATED,
+    /**
+     * User already existed, e.g. created by the previous interrupted run, roles are assigned.
+     */
+    RECOVERED,
+    /**
+     * User is marked as completed in checkpoint store.
+     */
+    SKIPPED,
+    FAILED
+  }
+}
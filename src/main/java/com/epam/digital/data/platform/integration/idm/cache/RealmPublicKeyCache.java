@@ -0,0 +1,138 @@
+/*
+ * Copyright 2023 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.integration.idm.cache;
+
+import com.epam.digital.data.platform.integration.idm.model.IdmClientProperties;
+import com.epam.digital.data.platform.integration.idm.model.PublishedIdmRealm;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Cache of published realms (public keys) by realm name.
+ * <p>
+ * Only one fetch per realm is performed at a time. Callers of a realm that isn't cached yet wait
+ * for that fetch, while expired realm is still served from memory until the fetch performed by one
+ * of the callers completes.
+ */
+@Slf4j
+public class RealmPublicKeyCache {
+
+  private final long timeToLiveNanos;
+  private final long minForcedRefreshIntervalNanos;
+  private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+  public RealmPublicKeyCache(IdmClientProperties.PublicKeyCache properties) {
+    this.timeToLiveNanos = properties.getTimeToLive().toNanos();
+    this.minForcedRefreshIntervalNanos = properties.getMinForcedRefreshInterval().toNanos();
+  }
+
+  /**
+   * Get cached realm or fetch it with given loader.
+   *
+   * @param realm  realm name
+   * @param loader loader of the realm
+   * @return published realm
+   */
+  public PublishedIdmRealm get(String realm, Supplier<PublishedIdmRealm> loader) {
+    var entry = entries.computeIfAbsent(realm, Entry::new);
+    var cached = entry.value;
+    if (Objects.isNull(cached)) {
+      return entry.fetch(loader);
+    }
+    if (System.nanoTime() - entry.loadedAt > timeToLiveNanos && entry.isIdle()) {
+      try {
+        return entry.fetch(loader);
+      } catch (RuntimeException exception) {
+        log.warn("Couldn't refresh public key of realm {}, expired key is used", realm, exception);
+      }
+    }
+    return cached;
+  }
+
+  /**
+   * Fetch realm ignoring cached value, e.g. when a signature couldn't be verified with the cached
+   * public key. Forced refreshes of a realm are performed not more often than configured
+   * {@code minForcedRefreshInterval}, otherwise the cached realm is returned.
+   *
+   * @param realm  realm name
+   * @param loader loader of the realm
+   * @return published realm
+   */
+  public PublishedIdmRealm refresh(String realm, Supplier<PublishedIdmRealm> loader) {
+    var entry = entries.computeIfAbsent(realm, Entry::new);
+    var cached = entry.value;
+    if (Objects.nonNull(cached)
+        && System.nanoTime() - entry.loadedAt < minForcedRefreshIntervalNanos) {
+      return cached;
+    }
+    log.info("Forced refresh of public key of realm {}", realm);
+    return entry.fetch(loader);
+  }
+
+  @RequiredArgsConstructor
+  private static class Entry {
+
+    private final String realm;
+    private final AtomicReference<CompletableFuture<PublishedIdmRealm>> inFlight =
+        new AtomicReference<>();
+    private volatile PublishedIdmRealm value;
+    private volatile long loadedAt;
+
+    boolean isIdle() {
+      return Objects.isNull(inFlight.get());
+    }
+
+    PublishedIdmRealm fetch(Supplier<PublishedIdmRealm> loader) {
+      var future = new CompletableFuture<PublishedIdmRealm>();
+      var existing = inFlight.compareAndExchange(null, future);
+      if (Objects.nonNull(existing)) {
+        return await(existing);
+      }
+      try {
+        log.info("Fetching public key of realm {}", realm);
+        var result = loader.get();
+        value = result;
+        loadedAt = System.nanoTime();
+        future.complete(result);
+        return result;
+      } catch (RuntimeException exception) {
+        future.completeExceptionally(exception);
+        throw exception;
+      } finally {
+        inFlight.set(null);
+      }
+    }
+
+    private PublishedIdmRealm await(CompletableFuture<PublishedIdmRealm> future) {
+      try {
+        return future.join();
+      } catch (CompletionException exception) {
+        if (exception.getCause() instanceof RuntimeException) {
+          throw (RuntimeException) exception.getCause();
+        }
+        throw exception;
+      }
+    }
+  }
+}
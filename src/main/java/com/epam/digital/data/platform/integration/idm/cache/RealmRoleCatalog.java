@@ -0,0 +1,117 @@
+/*
+ * Copyright 2023 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.integration.idm.cache;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.keycloak.representations.idm.RoleRepresentation;
+
+/**
+ * In-memory catalog of realm roles. The catalog is loaded on first access and then refreshed in
+ * background with configured interval. Failed background refresh keeps previously loaded roles.
+ */
+@Slf4j
+public class RealmRoleCatalog implements Closeable {
+
+  private final String realm;
+  private final Supplier<List<RoleRepresentation>> loader;
+  private final ScheduledFuture<?> refreshTask;
+
+  private volatile Map<String, RoleRepresentation> roles;
+
+  public RealmRoleCatalog(String realm, Supplier<List<RoleRepresentation>> loader,
+      Duration refreshInterval, ScheduledExecutorService scheduler) {
+    this.realm = realm;
+    this.loader = loader;
+    var interval = refreshInterval.toMillis();
+    this.refreshTask = scheduler.scheduleWithFixedDelay(this::refreshLoaded, interval, interval,
+        TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * @return all realm roles in the order returned by keycloak
+   */
+  public List<RoleRepresentation> getRoles() {
+    return new ArrayList<>(getLoadedRoles().values());
+  }
+
+  /**
+   * Find realm role by name.
+   *
+   * @param name role name
+   * @return role representation or empty if catalog doesn't contain such role
+   */
+  public Optional<RoleRepresentation> find(String name) {
+    return Optional.ofNullable(getLoadedRoles().get(name));
+  }
+
+  /**
+   * Drop loaded roles, so they are loaded again on the next access.
+   */
+  public void invalidate() {
+    log.info("Realm role catalog of realm {} invalidated", realm);
+    roles = null;
+  }
+
+  @Override
+  public void close() {
+    refreshTask.cancel(false);
+  }
+
+  private Map<String, RoleRepresentation> getLoadedRoles() {
+    var result = roles;
+    if (Objects.isNull(result)) {
+      synchronized (this) {
+        result = roles;
+        if (Objects.isNull(result)) {
+          result = load();
+          roles = result;
+        }
+      }
+    }
+    return result;
+  }
+
+  private void refreshLoaded() {
+    if (Objects.isNull(roles)) {
+      return;
+    }
+    try {
+      roles = load();
+    } catch (RuntimeException exception) {
+      log.warn("Couldn't refresh realm role catalog of realm {}", realm, exception);
+    }
+  }
+
+  private Map<String, RoleRepresentation> load() {
+    var result = new LinkedHashMap<String, RoleRepresentation>();
+    loader.get().forEach(role -> result.put(role.getName(), role));
+    log.info("Realm role catalog of realm {} loaded with {} roles", realm, result.size());
+    return result;
+  }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2023 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.integration.idm.cache;
+
+import com.epam.digital.data.platform.integration.idm.model.IdmClientProperties;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded cache of keycloak user ids by username. Entries expire after configured time to live.
+ */
+public class UserIdCache {
+
+  private final Cache<String, String> cache;
+
+  public UserIdCache(IdmClientProperties.UserIdCache properties) {
+    this.cache = CacheBuilder.newBuilder()
+        .maximumSize(properties.getMaxSize())
+        .expireAfterWrite(properties.getTimeToLive().toMillis(), TimeUnit.MILLISECONDS)
+        .recordStats()
+        .build();
+  }
+
+  public Optional<String> get(String username) {
+    return Optional.ofNullable(cache.getIfPresent(username));
+  }
+
+  public void put(String username, String userId) {
+    cache.put(username, userId);
+  }
+
+  public void invalidate(String username) {
+    cache.invalidate(username);
+  }
+
+  /**
+   * Invalidate all usernames that are resolved to given user id.
+   *
+   * @param userId keycloak user id
+   */
+  public void invalidateUserId(String userId) {
+    cache.asMap().values().removeIf(id -> Objects.equals(id, userId));
+  }
+
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  public CacheStats stats() {
+    return cache.stats();
+  }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2023 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.idm.client;
+
+import com.epam.digital.data.platform.integration.idm.metrics.KeycloakClientMetrics;
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.keycloak.admin.client.token.TokenManager;
+
+/**
+ * Background refresher of the service account access token. New token is granted configured time
+ * before the current one expires, so request threads don't stop to fetch the token. Token manager
+ * grants token under its monitor, so concurrent callers that need the token while it's fetched
+ * wait for the single in-flight fetch instead of sending their own.
+ * <p>
+ * Failed refresh is retried after retry interval, the current token is used until it expires.
+ */
+@Slf4j
+class AccessTokenRefresher implements Closeable {
+
+  static final String TOKEN_OPERATION = "token";
+
+  private final String realm;
+  private final TokenManager tokenManager;
+  private final Duration refreshBeforeExpiry;
+  private final Duration retryInterval;
+  private final ScheduledExecutorService scheduler;
+  private final KeycloakClientMetrics metrics;
+
+  private ScheduledFuture<?> refreshTask;
+  private volatile boolean closed;
+
+  AccessTokenRefresher(String realm, TokenManager tokenManager, Duration refreshBeforeExpiry,
+      Duration retryInterval, ScheduledExecutorService scheduler, KeycloakClientMetrics metrics) {
+    this.realm = realm;
+    this.tokenManager = tokenManager;
+    this.refreshBeforeExpiry = refreshBeforeExpiry;
+    this.retryInterval = retryInterval;
+    this.scheduler = scheduler;
+    this.metrics = metrics;
+  }
+
+  /**
+   * Grant the first token in background and keep it fresh until the refresher is closed.
+   */
+  void start() {
+    schedule(Duration.ZERO);
+  }
+
+  @Override
+  public synchronized void close() {
+    closed = true;
+    if (Objects.nonNull(refreshTask)) {
+      refreshTask.cancel(false);
+    }
+  }
+
+  void refresh() {
+    if (closed) {
+      return;
+    }
+    var observation = metrics.startRequest(realm, TOKEN_OPERATION);
+    try {
+      var token = tokenManager.grantToken();
+      observation.success();
+      var delay = nextRefreshDelay(Duration.ofSeconds(token.getExpiresIn()));
+      log.debug("Access token of realm {} is refreshed, next refresh in {}", realm, delay);
+      schedule(delay);
+    } catch (RuntimeException exception) {
+      observation.failure(exception);
+      log.warn("Couldn't refresh access token of realm {}, retrying in {}", realm, retryInterval,
+          exception);
+      schedule(retryInterval);
+    }
+  }
+
+  Duration nextRefreshDelay(Duration validity) {
+    var delay = validity.compareTo(refreshBeforeExpiry) > 0 ? validity.minus(refreshBeforeExpiry)
+        : validity.dividedBy(2);
+    return delay.compareTo(retryInterval) < 0 ? retryInterval : delay;
+  }
+
+  private synchronized void schedule(Duration delay) {
+    if (closed) {
+      return;
+    }
+    try {
+      refreshTask = scheduler.schedule(this::refresh, delay.toMillis(), TimeUnit.MILLISECONDS);
+    } catch (RejectedExecutionException exception) {
+      log.warn("Access token refresh of realm {} is stopped, scheduler is shut down", realm);
+    }
+  }
+}
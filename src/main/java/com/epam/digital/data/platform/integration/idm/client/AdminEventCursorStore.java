@@ -0,0 +1,40 @@
+/*
+ * Copyright 2023 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.idm.client;
+
+import java.util.Optional;
+
+/**
+ * Store of admin events sync cursors, so the sync continues from the last applied event after
+ * restart instead of reloading all users.
+ */
+public interface AdminEventCursorStore {
+
+  /**
+   * @param realm realm name
+   * @return time in epoch milliseconds all admin events before that have been applied or empty if
+   * the realm hasn't been synced yet
+   */
+  Optional<Long> load(String realm);
+
+  /**
+   * @param realm  realm name
+   * @param cursor time in epoch milliseconds all admin events before that have been applied
+   */
+  void save(String realm, long cursor);
+}
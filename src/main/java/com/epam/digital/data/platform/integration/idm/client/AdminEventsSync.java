@@ -0,0 +1,265 @@
+/*
+ * Copyright 2023 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.idm.client;
+
+import com.epam.digital.data.platform.integration.idm.model.IdmClientProperties;
+import com.epam.digital.data.platform.integration.idm.replica.UserReplica;
+import java.io.Closeable;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.extern.slf4j.Slf4j;
+import org.keycloak.representations.idm.AdminEventRepresentation;
+
+/**
+ * Incremental sync of client caches driven by keycloak admin events of the realm. A single sync is
+ * shared by all keycloak admin clients of the realm: events are fetched through any attached
+ * client and changes are applied to the caches and listeners of every attached client.
+ * <p>
+ * Admin events newer than the persisted cursor are polled with configured interval. Users touched
+ * by the events are re-read and put to (or removed from) {@link UserReplica}, user change
+ * listeners are notified and role changes invalidate realm role catalog. All users are reloaded
+ * instead if there is no cursor yet, the cursor is older than max gap or there are more events
+ * than max events since the cursor. Update or deletion of a realm role reloads the replica too,
+ * since role membership of many users may have changed.
+ * <p>
+ * Applying an event is idempotent, so events at the cursor and within lag before the poll are
+ * applied again by the next poll: keycloak may store an event a bit after its time, so the cursor
+ * never passes the poll start minus lag.
+ */
+@Slf4j
+public class AdminEventsSync implements Closeable {
+
+  private static final String USERS_RESOURCE = "users";
+  private static final String ROLES_RESOURCE = "roles";
+  private static final String ROLES_BY_ID_RESOURCE = "roles-by-id";
+  private static final String CREATE_OPERATION = "CREATE";
+
+  private final String realm;
+  private final List<KeycloakAdminClient> clients = new CopyOnWriteArrayList<>();
+  private final UserReplica replica;
+  private final AdminEventCursorStore cursorStore;
+  private final IdmClientProperties.AdminEventsSync properties;
+  private final Executor executor;
+  private final Clock clock;
+  private final ScheduledFuture<?> pollTask;
+
+  private final AtomicBoolean polling = new AtomicBoolean();
+  private Instant lastReplicaWatermark;
+
+  /**
+   * @param replica   user replica of the realm, replica isn't synced if it's {@code null}
+   * @param scheduler scheduler of polls
+   * @param executor  executor that runs polls, polls run on the scheduler if it's {@code null}
+   */
+  public AdminEventsSync(String realm, UserReplica replica, AdminEventCursorStore cursorStore,
+      IdmClientProperties.AdminEventsSync properties, ScheduledExecutorService scheduler,
+      Executor executor) {
+    this(realm, replica, cursorStore, properties, scheduler, executor, Clock.systemUTC());
+  }
+
+  AdminEventsSync(String realm, UserReplica replica, AdminEventCursorStore cursorStore,
+      IdmClientProperties.AdminEventsSync properties, ScheduledExecutorService scheduler,
+      Executor executor, Clock clock) {
+    this.realm = realm;
+    this.replica = replica;
+    this.cursorStore = cursorStore;
+    this.properties = properties;
+    this.executor = Objects.requireNonNullElse(executor, Runnable::run);
+    this.clock = clock;
+    var interval = properties.getPollInterval().toMillis();
+    this.pollTask = scheduler.scheduleWithFixedDelay(this::schedulePoll, interval, interval,
+        TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Attach keycloak admin client of the realm, its caches and listeners are synced until it's
+   * detached.
+   *
+   * @param client keycloak admin client of the realm
+   */
+  void attach(KeycloakAdminClient client) {
+    clients.add(client);
+  }
+
+  /**
+   * Detach keycloak admin client, e.g. once it's closed.
+   *
+   * @param client attached keycloak admin client
+   */
+  void detach(KeycloakAdminClient client) {
+    clients.remove(client);
+  }
+
+  /**
+   * Apply admin events since the cursor or reload all users if the gap is too large.
+   */
+  void poll() {
+    var startedAt = clock.millis();
+    var client = clients.stream().findFirst();
+    if (client.isEmpty()) {
+      log.debug("Admin events sync of realm {} has no clients, poll is skipped", realm);
+      return;
+    }
+    var cursor = cursorStore.load(realm);
+    if (cursor.isEmpty() || startedAt - cursor.get() > properties.getMaxGap().toMillis()) {
+      log.info("Admin events cursor of realm {} is missing or too old, reloading", realm);
+      reloadAll(startedAt);
+      return;
+    }
+    var from = cursor.get();
+    var replicaWatermark = Objects.isNull(replica) ? null : replica.getWatermark().orElse(null);
+    if (Objects.nonNull(replicaWatermark) && !replicaWatermark.equals(lastReplicaWatermark)) {
+      // the replica has been reloaded since the last poll, so changes applied to its previous
+      // content during the reload are applied again
+      from = Math.min(from, replicaWatermark.toEpochMilli());
+      lastReplicaWatermark = replicaWatermark;
+    }
+    var events = fetchEventsSince(client.get(), from);
+    if (events.isEmpty()) {
+      log.info("More than {} admin events since cursor of realm {}, reloading",
+          properties.getMaxEvents(), realm);
+      reloadAll(startedAt);
+      return;
+    }
+    apply(client.get(), events.get());
+    // events stored later with time within lag before the poll haven't been fetched yet
+    var appliedUntil = Math.max(from, startedAt - properties.getLag().toMillis());
+    cursorStore.save(realm, appliedUntil);
+    if (Objects.nonNull(replica)) {
+      replica.advanceWatermark(Instant.ofEpochMilli(appliedUntil));
+      lastReplicaWatermark = replica.getWatermark().orElse(null);
+    }
+    log.debug("Applied {} admin events of realm {}, cursor {}", events.get().size(), realm,
+        appliedUntil);
+  }
+
+  @Override
+  public void close() {
+    pollTask.cancel(false);
+  }
+
+  /**
+   * @return events since given time in ascending order or empty if there are more events than
+   * max events
+   */
+  private Optional<List<AdminEventRepresentation>> fetchEventsSince(KeycloakAdminClient client,
+      long from) {
+    // keycloak filters events by date only, events of the previous day are fetched too in case of
+    // time zone difference and skipped by time
+    var dateFrom = LocalDate.ofInstant(Instant.ofEpochMilli(from), ZoneOffset.UTC).minusDays(1)
+        .toString();
+    var pageSize = properties.getPageSize();
+    var events = new ArrayList<AdminEventRepresentation>();
+    for (var first = 0; ; first += pageSize) {
+      // keycloak returns the newest events first
+      var page = client.fetchAdminEvents(dateFrom, first, pageSize);
+      for (var event : page) {
+        if (event.getTime() < from) {
+          events.sort(Comparator.comparingLong(AdminEventRepresentation::getTime));
+          return Optional.of(events);
+        }
+        events.add(event);
+        if (events.size() > properties.getMaxEvents()) {
+          return Optional.empty();
+        }
+      }
+      if (page.size() < pageSize) {
+        events.sort(Comparator.comparingLong(AdminEventRepresentation::getTime));
+        return Optional.of(events);
+      }
+    }
+  }
+
+  private void apply(KeycloakAdminClient client, List<AdminEventRepresentation> events) {
+    var userIds = new LinkedHashSet<String>();
+    var rolesChanged = false;
+    var roleMembersChanged = false;
+    for (var event : events) {
+      if (Objects.isNull(event.getResourcePath())) {
+        continue;
+      }
+      var path = event.getResourcePath().split("/");
+      if (USERS_RESOURCE.equals(path[0]) && path.length > 1) {
+        userIds.add(path[1]);
+      } else if (ROLES_RESOURCE.equals(path[0]) || ROLES_BY_ID_RESOURCE.equals(path[0])) {
+        rolesChanged = true;
+        roleMembersChanged |= !CREATE_OPERATION.equals(event.getOperationType());
+      }
+    }
+    if (rolesChanged) {
+      clients.forEach(KeycloakAdminClient::invalidateRoleCatalog);
+    }
+    if (roleMembersChanged && Objects.nonNull(replica)) {
+      log.info("Realm roles of realm {} have been changed, reloading user replica", realm);
+      replica.reload();
+    }
+    for (var userId : userIds) {
+      if (Objects.nonNull(replica) && !roleMembersChanged) {
+        client.findUserRepresentation(userId).ifPresentOrElse(
+            user -> replica.putUser(user, client.fetchUserRoleNames(userId)),
+            () -> replica.removeUser(userId));
+      }
+      clients.forEach(attached -> attached.notifyUserChanged(userId));
+    }
+  }
+
+  private void reloadAll(long startedAt) {
+    if (Objects.nonNull(replica)) {
+      replica.reload();
+      lastReplicaWatermark = replica.getWatermark().orElse(null);
+    }
+    clients.forEach(KeycloakAdminClient::invalidateRoleCatalog);
+    clients.forEach(KeycloakAdminClient::notifyUsersReloaded);
+    cursorStore.save(realm, startedAt);
+  }
+
+  private void schedulePoll() {
+    if (!polling.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      executor.execute(() -> {
+        try {
+          poll();
+        } catch (RuntimeException exception) {
+          log.warn("Couldn't sync admin events of realm {}", realm, exception);
+        } finally {
+          polling.set(false);
+        }
+      });
+    } catch (RejectedExecutionException exception) {
+      polling.set(false);
+      log.warn("Admin events sync of realm {} is rejected", realm, exception);
+    }
+  }
+}
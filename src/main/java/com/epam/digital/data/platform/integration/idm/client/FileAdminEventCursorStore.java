@@ -0,0 +1,70 @@
+/*
+ * Copyright 2023 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.idm.client;
+
+import com.epam.digital.data.platform.integration.idm.exception.KeycloakException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+
+/**
+ * {@link AdminEventCursorStore} that keeps cursor of every realm in a separate file of the
+ * directory. The file is replaced atomically, so the cursor survives process failure.
+ */
+public class FileAdminEventCursorStore implements AdminEventCursorStore {
+
+  private final Path directory;
+
+  public FileAdminEventCursorStore(Path directory) {
+    this.directory = directory;
+  }
+
+  @Override
+  public Optional<Long> load(String realm) {
+    var path = cursorPath(realm);
+    if (!Files.exists(path)) {
+      return Optional.empty();
+    }
+    try {
+      return Optional.of(Long.parseLong(Files.readString(path, StandardCharsets.UTF_8).trim()));
+    } catch (IOException | NumberFormatException exception) {
+      throw new KeycloakException(String.format("Couldn't read cursor file %s", path), exception);
+    }
+  }
+
+  @Override
+  public synchronized void save(String realm, long cursor) {
+    var path = cursorPath(realm);
+    try {
+      Files.createDirectories(directory);
+      var temporary = Files.createTempFile(directory, realm, ".tmp");
+      Files.writeString(temporary, Long.toString(cursor), StandardCharsets.UTF_8);
+      Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException exception) {
+      throw new KeycloakException(String.format("Couldn't write cursor file %s", path), exception);
+    }
+  }
+
+  private Path cursorPath(String realm) {
+    return directory.resolve(realm + ".cursor");
+  }
+}
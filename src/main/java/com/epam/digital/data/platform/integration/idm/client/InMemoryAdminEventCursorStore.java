@@ -0,0 +1,41 @@
+/*
+ * Copyright 2023 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.idm.client;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link AdminEventCursorStore} that keeps cursors until the application is stopped, so all users
+ * are reloaded once after every start.
+ */
+public class InMemoryAdminEventCursorStore implements AdminEventCursorStore {
+
+  private final Map<String, Long> cursors = new ConcurrentHashMap<>();
+
+  @Override
+  public Optional<Long> load(String realm) {
+    return Optional.ofNullable(cursors.get(realm));
+  }
+
+  @Override
+  public void save(String realm, long cursor) {
+    cursors.put(realm, cursor);
+  }
+}
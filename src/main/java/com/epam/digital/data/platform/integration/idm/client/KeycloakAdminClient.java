@@ -16,36 +16,180 @@
 
 package com.epam.digital.data.platform.integration.idm.client;
 
+import com.epam.digital.data.platform.integration.idm.cache.RealmRoleCatalog;
 import com.epam.digital.data.platform.integration.idm.exception.KeycloakException;
+import com.epam.digital.data.platform.integration.idm.metrics.KeycloakClientMetrics;
 import com.epam.digital.data.platform.integration.idm.model.*;
+import com.epam.digital.data.platform.integration.idm.replica.UserReplica;
+import com.epam.digital.data.platform.integration.idm.replica.UserReplicaLoader;
+import com.epam.digital.data.platform.integration.idm.resilience.KeycloakCircuitBreaker;
+import com.epam.digital.data.platform.integration.idm.resilience.KeycloakRateLimiter;
+import com.epam.digital.data.platform.integration.idm.resilience.KeycloakRetryPolicy;
 import com.epam.digital.data.platform.integration.idm.resource.UsersExtendedResource;
 import com.google.common.collect.Maps;
+import java.io.Closeable;
 import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
-import lombok.RequiredArgsConstructor;
+import java.util.stream.Collectors;
+import javax.ws.rs.NotFoundException;
+import javax.ws.rs.WebApplicationException;
+import lombok.Builder;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.http.HttpStatus;
 import org.keycloak.admin.client.Keycloak;
 import org.keycloak.admin.client.resource.RealmResource;
 import org.keycloak.admin.client.resource.RoleScopeResource;
+import org.keycloak.representations.idm.AdminEventRepresentation;
 import org.keycloak.representations.idm.RoleRepresentation;
 import org.keycloak.representations.idm.UserRepresentation;
 import org.springframework.cloud.sleuth.annotation.NewSpan;
 
 /**
  * The client for communication with keycloak admin rest endpoints.
+ * <p>
+ * Realm resource and {@link UsersExtendedResource} proxy are created once on first usage and
+ * reused for the whole lifetime of the client.
+ * <p>
+ * If role catalog is enabled, realm roles are served from {@link RealmRoleCatalog} that is
+ * refreshed in background.
+ * <p>
+ * If token refresh is enabled, access token is renewed by {@link AccessTokenRefresher} before it
+ * expires.
+ * <p>
+ * If circuit breaker is set, keycloak requests fail fast while it's open. If retry policy is set,
+ * transient failures of read requests are retried, mutations are never retried. If rate limiter is
+ * set, every request including retries takes its permits.
+ * <p>
+ * If user replica is enabled, unpaginated attribute searches are answered by {@link UserReplica}
+ * while it's fresh. If admin events sync is enabled, the replica, the role catalog and registered
+ * {@link UserChangeListener}s are updated by {@link AdminEventsSync}.
  */
 @Slf4j
-@RequiredArgsConstructor
-public class KeycloakAdminClient {
+public class KeycloakAdminClient implements Closeable {
+
+  private static final int DEFAULT_ROLE_MEMBERS_PAGE_SIZE = 100;
+  private static final int DEFAULT_ROLE_MEMBERS_PARALLELISM = 4;
+  private static final Duration DEFAULT_TOKEN_REFRESH_RETRY = Duration.ofSeconds(5);
 
   private final String realm;
   private final String serverUrl;
   private final Keycloak keycloak;
+  private final RealmRoleCatalog roleCatalog;
+  private final Executor executor;
+  private final int roleMembersPageSize;
+  private final int roleMembersParallelism;
+  private final KeycloakClientMetrics metrics;
+  private final AccessTokenRefresher tokenRefresher;
+  private final KeycloakCircuitBreaker circuitBreaker;
+  private final KeycloakRetryPolicy retryPolicy;
+  private final KeycloakRateLimiter rateLimiter;
+  private final UserReplica userReplica;
+  private final AdminEventsSync adminEventsSync;
+  private final List<UserChangeListener> userChangeListeners = new CopyOnWriteArrayList<>();
+  private final UserReplicaLoader replicaLoader = new UserReplicaLoader() {
+    @Override
+    public List<UserRepresentation> loadUsers() {
+      return fetchAllUsers(getRealmResource());
+    }
+
+    @Override
+    public Map<String, ? extends Collection<String>> loadRoleMembers() {
+      return fetchRoleMemberIds(getRealmResource());
+    }
+  };
+
+  private volatile RealmResource realmResource;
+  private volatile UsersExtendedResource usersExtendedResource;
 
+  public KeycloakAdminClient(String realm, String serverUrl, Keycloak keycloak) {
+    this(realm, serverUrl, keycloak, null, null, null, null, null, null, null, null, null, null,
+        null, null, null);
+  }
+
+  /**
+   * @param roleCatalogRefreshInterval refresh interval of realm role catalog, catalog is disabled
+   *                                   if it's {@code null}
+   * @param scheduler                  scheduler of client background tasks
+   * @param executor                   executor of concurrent page requests, pages are requested
+   *                                   sequentially if it's {@code null}
+   * @param roleMembersPageSize        page size of role members walk-through
+   * @param roleMembersParallelism     max role members pages requested concurrently
+   * @param metrics                    metrics of keycloak requests, not recorded if it's
+   *                                   {@code null}
+   * @param tokenRefreshBeforeExpiry   time before access token expiry when it's refreshed in
+   *                                   background, token is refreshed on demand if it's
+   *                                   {@code null}
+   * @param tokenRefreshRetryInterval  retry interval of failed background token refresh
+   * @param circuitBreaker             circuit breaker of the realm that may be shared with other
+   *                                   clients of the realm, requests aren't guarded if it's
+   *                                   {@code null}
+   * @param retryPolicy                retry policy of read requests of the realm, reads aren't
+   *                                   retried if it's {@code null}
+   * @param rateLimiter                rate limiter of requests of the realm, requests aren't
+   *                                   limited if it's {@code null}
+   * @param userReplica                user replica of the realm shared with other clients of the
+   *                                   realm, the client is registered as its loader; attribute
+   *                                   searches always call keycloak if it's {@code null}
+   * @param adminEventsSync            admin events sync of the realm shared with other clients of
+   *                                   the realm, the client is attached to it; caches aren't
+   *                                   synced if it's {@code null}
+   */
+  @Builder
+  private KeycloakAdminClient(String realm, String serverUrl, Keycloak keycloak,
+      Duration roleCatalogRefreshInterval, ScheduledExecutorService scheduler, Executor executor,
+      Integer roleMembersPageSize, Integer roleMembersParallelism, KeycloakClientMetrics metrics,
+      Duration tokenRefreshBeforeExpiry, Duration tokenRefreshRetryInterval,
+      KeycloakCircuitBreaker circuitBreaker, KeycloakRetryPolicy retryPolicy,
+      KeycloakRateLimiter rateLimiter, UserReplica userReplica, AdminEventsSync adminEventsSync) {
+    this.realm = realm;
+    this.serverUrl = serverUrl;
+    this.keycloak = keycloak;
+    this.metrics = Objects.requireNonNullElse(metrics, KeycloakClientMetrics.NOOP);
+    this.circuitBreaker = circuitBreaker;
+    this.retryPolicy = retryPolicy;
+    this.rateLimiter = rateLimiter;
+    this.executor = executor;
+    this.roleMembersPageSize = Objects.requireNonNullElse(roleMembersPageSize,
+        DEFAULT_ROLE_MEMBERS_PAGE_SIZE);
+    this.roleMembersParallelism = Objects.isNull(executor) ? 1
+        : Objects.requireNonNullElse(roleMembersParallelism, DEFAULT_ROLE_MEMBERS_PARALLELISM);
+    this.roleCatalog = Objects.isNull(roleCatalogRefreshInterval) ? null
+        : new RealmRoleCatalog(realm, () -> fetchKeycloakRoles(getRealmResource()),
+            roleCatalogRefreshInterval, scheduler);
+    this.userReplica = userReplica;
+    this.adminEventsSync = adminEventsSync;
+    this.tokenRefresher = Objects.isNull(tokenRefreshBeforeExpiry) ? null
+        : new AccessTokenRefresher(realm, keycloak.tokenManager(), tokenRefreshBeforeExpiry,
+            Objects.requireNonNullElse(tokenRefreshRetryInterval, DEFAULT_TOKEN_REFRESH_RETRY),
+            scheduler, this.metrics);
+    if (Objects.nonNull(tokenRefresher)) {
+      tokenRefresher.start();
+    }
+    if (Objects.nonNull(userReplica)) {
+      userReplica.addLoader(replicaLoader);
+    }
+    if (Objects.nonNull(adminEventsSync)) {
+      adminEventsSync.attach(this);
+    }
+  }
 
   /**
    * Retrieve keycloak realm resource.
@@ -54,11 +198,16 @@ public class KeycloakAdminClient {
    */
   @NewSpan
   public RealmResource getRealmResource() {
-    log.info("Selecting keycloak realm {}", realm);
-    var result = wrapKeycloakRequest(() -> keycloak.realm(realm),
-        () -> String.format("Couldn't find realm %s", realm));
-    log.info("Keycloak realm {} found", realm);
-
+    var result = realmResource;
+    if (Objects.isNull(result)) {
+      synchronized (this) {
+        result = realmResource;
+        if (Objects.isNull(result)) {
+          result = createRealmResource();
+          realmResource = result;
+        }
+      }
+    }
     return result;
   }
 
@@ -70,11 +219,10 @@ public class KeycloakAdminClient {
    */
   @NewSpan
   public List<RoleRepresentation> getKeycloakRoles(RealmResource realmResource) {
-    log.info("Selecting keycloak roles in realm {}", realm);
-    var keycloakRoles = wrapKeycloakRequest(() -> realmResource.roles().list(),
-        () -> String.format("Couldn't select roles from realm %s", realm));
-    log.info("Founded {} keycloak roles in realm {}", keycloakRoles.size(), realm);
-    return keycloakRoles;
+    if (Objects.nonNull(roleCatalog)) {
+      return roleCatalog.getRoles();
+    }
+    return fetchKeycloakRoles(realmResource);
   }
 
   /**
@@ -89,7 +237,8 @@ public class KeycloakAdminClient {
       String username) {
 
     log.info("Finding user {} in keycloak realm {}", username, realm);
-    var users = wrapKeycloakRequest(() -> realmResource.users().search(username, true),
+    var users = wrapKeycloakReadRequest("getUsersByUsername",
+        () -> realmResource.users().search(username, true),
         () -> String.format("Couldn't find users %s in realm %s", username, realm));
     log.info("Found {} users with username {} in realm {}", users.size(), username, realm);
     return users;
@@ -105,7 +254,8 @@ public class KeycloakAdminClient {
   public void updateUserRepresentation(RealmResource realm, UserRepresentation user) {
     var userName = user.getUsername();
     log.info("Updating user with username: {}", userName);
-    wrapKeycloakVoidRequest(() -> realm.users().get(user.getId()).update(user),
+    wrapKeycloakVoidRequest("updateUser",
+        () -> realm.users().get(user.getId()).update(user),
         () -> String.format("Couldn't update user with username: %s", userName));
     log.info("User with username: {} updated successfully", userName);
   }
@@ -119,10 +269,21 @@ public class KeycloakAdminClient {
    */
   @NewSpan
   public RoleRepresentation getRoleRepresentation(RealmResource realmResource, String role) {
+    if (Objects.nonNull(roleCatalog)) {
+      var cachedRole = roleCatalog.find(role);
+      if (cachedRole.isPresent()) {
+        return cachedRole.get();
+      }
+    }
     log.info("Finding role {} in keycloak realm {}", role, realm);
-    var result = wrapKeycloakRequest(() -> realmResource.roles().get(role).toRepresentation(),
+    var result = wrapKeycloakReadRequest("getRole",
+        () -> realmResource.roles().get(role).toRepresentation(),
         () -> String.format("Couldn't find role %s in realm %s", role, realm));
     log.info("Role {} in realm {} is found", role, realm);
+    if (Objects.nonNull(roleCatalog)) {
+      log.info("Role {} is missing in role catalog of realm {}", role, realm);
+      roleCatalog.invalidate();
+    }
     return result;
   }
 
@@ -136,7 +297,7 @@ public class KeycloakAdminClient {
   @NewSpan
   public Set<UserRepresentation> getRoleUserMembers(RealmResource realmResource, String role, Integer offset, Integer limit) {
     log.info("Selecting keycloak users with role {} in realm {}", role, realm);
-    var roleUserMembers = wrapKeycloakRequest(
+    var roleUserMembers = wrapKeycloakReadRequest("getRoleUserMembers",
         () -> realmResource.roles().get(role).getRoleUserMembers(offset, limit),
         () -> String.format("Couldn't get keycloak users with role %s in realm %s", role,
             realm));
@@ -144,6 +305,48 @@ public class KeycloakAdminClient {
     return roleUserMembers;
   }
 
+  /**
+   * Retrieve all keycloak users with given role walking through all offset pages. Up to
+   * {@code roleMembersParallelism} pages are requested concurrently, the walk stops at the first
+   * page that is shorter than the page size.
+   *
+   * @param realmResource realm resource
+   * @param role          role name
+   * @return users without duplicates in the order of sequential walk-through
+   */
+  @NewSpan
+  public Collection<UserRepresentation> getAllRoleUserMembers(RealmResource realmResource,
+      String role) {
+    log.info("Selecting all keycloak users with role {} in realm {}", role, realm);
+    var users = new LinkedHashMap<String, UserRepresentation>();
+    var offset = 0;
+    var lastPage = false;
+    while (!lastPage) {
+      var pages = new ArrayList<PageRequest<Set<UserRepresentation>>>(roleMembersParallelism);
+      for (var i = 0; i < roleMembersParallelism; i++) {
+        var pageOffset = offset;
+        pages.add(new PageRequest<>(() -> wrapKeycloakReadRequest("getRoleUserMembers",
+            () -> realmResource.roles().get(role).getRoleUserMembers(pageOffset,
+                roleMembersPageSize),
+            () -> String.format("Couldn't get keycloak users with role %s in realm %s", role,
+                realm))));
+        offset += roleMembersPageSize;
+      }
+      pages.forEach(page -> page.submit(executor));
+      for (var page : pages) {
+        var pageUsers = page.join();
+        pageUsers.forEach(user -> users.putIfAbsent(user.getId(), user));
+        if (pageUsers.size() < roleMembersPageSize) {
+          lastPage = true;
+          break;
+        }
+      }
+      pages.forEach(PageRequest::cancel);
+    }
+    log.info("Selected {} users with role {} in realm {}", users.size(), role, realm);
+    return users.values();
+  }
+
   /**
    * Retrieve keycloak role scope resource by realm resource and user id
    *
@@ -154,7 +357,8 @@ public class KeycloakAdminClient {
   @NewSpan
   public RoleScopeResource getRoleScopeResource(RealmResource realmResource, String userId) {
     log.info("Finding keycloak role scope resource by userId {} in realm {}", userId, realm);
-    var result = wrapKeycloakRequest(() -> realmResource.users().get(userId).roles().realmLevel(),
+    var result = wrapKeycloakClientCall(
+        () -> realmResource.users().get(userId).roles().realmLevel(),
         () -> String
             .format("Couldn't find keycloak role scope resource by userId %s in realm %s", userId,
                 realm));
@@ -171,7 +375,7 @@ public class KeycloakAdminClient {
   @NewSpan
   public void removeRoles(RoleScopeResource roleScopeResource, List<RoleRepresentation> roles) {
     log.info("Removing roles {} from user", roles);
-    wrapKeycloakVoidRequest(() -> roleScopeResource.remove(roles),
+    wrapKeycloakVoidRequest("removeRoles", () -> roleScopeResource.remove(roles),
         () -> String.format("Couldn't remove roles %s from user", roles));
     log.info("Roles {} removed from user", roles);
   }
@@ -185,20 +389,31 @@ public class KeycloakAdminClient {
   @NewSpan
   public void addRoles(RoleScopeResource roleScopeResource, List<RoleRepresentation> roles) {
     log.info("Adding roles {} to user", roles);
-    wrapKeycloakVoidRequest(() -> roleScopeResource.add(roles),
+    wrapKeycloakVoidRequest("addRoles", () -> roleScopeResource.add(roles),
         () -> String.format("Couldn't add roles %s to user", roles));
     log.info("Roles {} added to user", roles);
   }
 
   /**
+   * Get access token recorded as {@code token} request. The token isn't guarded by circuit breaker
+   * and rate limiter: it's mostly served by token manager without calling keycloak.
+   *
    * @return current service account access token
    *
    * @throws KeycloakException in case of any error
    */
   @NewSpan
   public String getClientAccessToken() {
-    return wrapKeycloakRequest(() -> keycloak.tokenManager().getAccessTokenString(),
-        () -> String.format("Couldn't get access token, realm %s", realm));
+    var observation = metrics.startRequest(realm, AccessTokenRefresher.TOKEN_OPERATION);
+    try {
+      var token = wrapKeycloakClientCall(() -> keycloak.tokenManager().getAccessTokenString(),
+          () -> String.format("Couldn't get access token, realm %s", realm));
+      observation.success();
+      return token;
+    } catch (KeycloakException exception) {
+      observation.failure(exception);
+      throw exception;
+    }
   }
 
   /**
@@ -214,8 +429,7 @@ public class KeycloakAdminClient {
   @NewSpan
   @Deprecated(forRemoval = true)
   public List<UserRepresentation> searchUsersByAttributes(SearchUserQuery searchRequest) {
-    return wrapKeycloakRequest(() -> keycloak.proxy(UsersExtendedResource.class, URI.create(
-                serverUrl))
+    return wrapKeycloakReadRequest("searchUsers", () -> getUsersExtendedResource()
             .searchUsersByAttributes(realm, searchRequest),
         () -> String.format("Couldn't find users by attributes in realm %s", realm));
   }
@@ -235,7 +449,7 @@ public class KeycloakAdminClient {
   public List<UserRepresentation> searchUsersByAttributes(
       SearchUsersByEqualsAndStartsWithAttributesRequestDto searchRequestDto) {
     return 
-        wrapKeycloakRequest(() -> keycloak.proxy(UsersExtendedResource.class, URI.create(serverUrl))
+        wrapKeycloakReadRequest("searchUsers", () -> getUsersExtendedResource()
                 .searchUsersByAttributes(realm, searchRequestDto),
             () -> String.format("Couldn't find users by attributes in realm %s", realm));
   }
@@ -252,8 +466,14 @@ public class KeycloakAdminClient {
   @Deprecated(forRemoval = true)
   public SearchUsersByAttributesResponseDto searchUsersByAttributes(
       SearchUsersByAttributesRequestDto requestDto) {
+    if (Objects.nonNull(userReplica)) {
+      var replicated = userReplica.searchUsers(requestDto);
+      if (replicated.isPresent()) {
+        return replicated.get();
+      }
+    }
     return
-        wrapKeycloakRequest(() -> keycloak.proxy(UsersExtendedResource.class, URI.create(serverUrl))
+        wrapKeycloakReadRequest("searchUsers", () -> getUsersExtendedResource()
                 .searchUsersByAttributes(realm, requestDto),
             () -> String.format("Couldn't find users by attributes in realm %s", realm));
   }
@@ -261,8 +481,14 @@ public class KeycloakAdminClient {
   @NewSpan
   public SearchUsersByRoleAndAttributesResponseDto searchUsersByRoleAndAttributes(
       SearchUsersByRoleAndAttributesRequestDto requestDto) {
+    if (Objects.nonNull(userReplica)) {
+      var replicated = userReplica.searchUsersByRoleAndAttributes(requestDto);
+      if (replicated.isPresent()) {
+        return replicated.get();
+      }
+    }
     return
-        wrapKeycloakRequest(() -> keycloak.proxy(UsersExtendedResource.class, URI.create(serverUrl))
+        wrapKeycloakReadRequest("searchUsersByRole", () -> getUsersExtendedResource()
                 .searchUsersByRoleAndAttributes(realm, requestDto),
             () -> String.format("Couldn't find users by attributes in realm %s", realm));
   }
@@ -271,49 +497,343 @@ public class KeycloakAdminClient {
   public void saveUserAttribute(RealmResource realmResource, String userId, String attributeName,
       List<String> values) {
     log.info("Saving user attribute {} in realm {} ", attributeName, realm);
-    var userResource = realmResource.users().get(userId);
-    var userRepresentation = userResource.toRepresentation();
-    if (Objects.isNull(userRepresentation.getAttributes())) {
-      userRepresentation.setAttributes(Maps.newHashMap());
-    }
-    userRepresentation.getAttributes().put(attributeName, values);
-    userResource.update(userRepresentation);
+    wrapKeycloakVoidRequest("saveUserAttribute", () -> {
+          var userResource = realmResource.users().get(userId);
+          var userRepresentation = userResource.toRepresentation();
+          if (Objects.isNull(userRepresentation.getAttributes())) {
+            userRepresentation.setAttributes(Maps.newHashMap());
+          }
+          userRepresentation.getAttributes().put(attributeName, values);
+          userResource.update(userRepresentation);
+        },
+        () -> String.format("Couldn't save user attribute %s in realm %s", attributeName, realm));
     log.info("User attribute {} is saved in realm {}", attributeName, realm);
   }
 
+  /**
+   * Change keycloak user representation with a single read and a single update
+   *
+   * @param realmResource realm resource
+   * @param userId        user identifier
+   * @param patch         changes of user representation
+   */
+  @NewSpan
+  public void patchUserRepresentation(RealmResource realmResource, String userId,
+      Consumer<UserRepresentation> patch) {
+    log.info("Patching user {} in realm {}", userId, realm);
+    wrapKeycloakVoidRequest("patchUser", () -> {
+          var userResource = realmResource.users().get(userId);
+          var userRepresentation = userResource.toRepresentation();
+          patch.accept(userRepresentation);
+          userResource.update(userRepresentation);
+        },
+        () -> String.format("Couldn't patch user %s in realm %s", userId, realm));
+    log.info("User {} is patched in realm {}", userId, realm);
+  }
+
   /**
    * Create keycloak user representation
    *
    * @param realm realm resource
    * @param user  representation of user to create
+   * @see KeycloakAdminClient#createUser(RealmResource, UserRepresentation)
    */
-  @NewSpan
   public void createUserRepresentation(RealmResource realm, UserRepresentation user) {
+    createUser(realm, user);
+  }
+
+  /**
+   * Create keycloak user representation
+   *
+   * @param realm realm resource
+   * @param user  representation of user to create
+   * @return id of created user taken from the location of created user
+   */
+  @NewSpan
+  public String createUser(RealmResource realm, UserRepresentation user) {
     var userName = user.getUsername();
     var errorMessage = String.format("Couldn't create user with username: %s", userName);
     log.info("Creating user with username: {}", userName);
-    try (var response = wrapKeycloakRequest(() -> realm.users().create(user), () -> errorMessage)) {
-      var responseStatus = response.getStatus();
-      log.info("Keycloak user creation response status: {}", responseStatus);
-      if (responseStatus != HttpStatus.SC_CREATED) {
-        throw new KeycloakException(errorMessage);
+    return wrapKeycloakRequest("createUser", () -> {
+      try (var response = realm.users().create(user)) {
+        var responseStatus = response.getStatus();
+        log.info("Keycloak user creation response status: {}", responseStatus);
+        if (responseStatus != HttpStatus.SC_CREATED) {
+          throw new WebApplicationException(errorMessage, response);
+        }
+        var location = response.getLocation();
+        if (Objects.isNull(location)) {
+          throw new KeycloakException(
+              String.format("Location of created user with username %s is missing", userName));
+        }
+        var path = location.getPath();
+        return path.substring(path.lastIndexOf('/') + 1);
       }
+    }, () -> errorMessage);
+  }
+
+  /**
+   * Drop roles loaded by realm role catalog, so they are loaded again on the next access. Should be
+   * called after realm roles have been changed.
+   */
+  public void invalidateRoleCatalog() {
+    if (Objects.nonNull(roleCatalog)) {
+      roleCatalog.invalidate();
     }
   }
 
-  private <T> T wrapKeycloakRequest(Supplier<T> supplier, Supplier<String> failMessageSupplier) {
+  /**
+   * Register listener of user changes detected by admin events sync. Listeners aren't notified if
+   * the sync is disabled.
+   *
+   * @param listener listener of user changes
+   */
+  public void addUserChangeListener(UserChangeListener listener) {
+    userChangeListeners.add(listener);
+  }
+
+  /**
+   * Close underlying keycloak client. The client couldn't be used after closing.
+   */
+  @Override
+  public void close() {
+    log.info("Closing keycloak admin client for realm {}", realm);
+    if (Objects.nonNull(roleCatalog)) {
+      roleCatalog.close();
+    }
+    if (Objects.nonNull(tokenRefresher)) {
+      tokenRefresher.close();
+    }
+    if (Objects.nonNull(adminEventsSync)) {
+      adminEventsSync.detach(this);
+    }
+    if (Objects.nonNull(userReplica)) {
+      userReplica.removeLoader(replicaLoader);
+    }
+    keycloak.close();
+  }
+
+  private List<RoleRepresentation> fetchKeycloakRoles(RealmResource realmResource) {
+    log.info("Selecting keycloak roles in realm {}", realm);
+    var keycloakRoles = wrapKeycloakReadRequest("getRoles", () -> realmResource.roles().list(),
+        () -> String.format("Couldn't select roles from realm %s", realm));
+    log.info("Founded {} keycloak roles in realm {}", keycloakRoles.size(), realm);
+    return keycloakRoles;
+  }
+
+  private List<UserRepresentation> fetchAllUsers(RealmResource realmResource) {
+    var pageSize = userReplica.getPageSize();
+    log.info("Selecting all keycloak users in realm {}", realm);
+    var users = new ArrayList<UserRepresentation>();
+    var lastPage = false;
+    while (!lastPage) {
+      var offset = users.size();
+      var page = wrapKeycloakReadRequest("listUsers",
+          () -> realmResource.users().list(offset, pageSize),
+          () -> String.format("Couldn't select users from realm %s", realm));
+      users.addAll(page);
+      lastPage = page.size() < pageSize;
+    }
+    log.info("Selected {} keycloak users in realm {}", users.size(), realm);
+    return users;
+  }
+
+  private Map<String, List<String>> fetchRoleMemberIds(RealmResource realmResource) {
+    var roleMemberIds = new HashMap<String, List<String>>();
+    for (var role : fetchKeycloakRoles(realmResource)) {
+      roleMemberIds.put(role.getName(), getAllRoleUserMembers(realmResource, role.getName())
+          .stream().map(UserRepresentation::getId).collect(Collectors.toList()));
+    }
+    return roleMemberIds;
+  }
+
+  List<AdminEventRepresentation> fetchAdminEvents(String dateFrom, int first, int max) {
+    return wrapKeycloakReadRequest("getAdminEvents",
+        () -> getRealmResource().getAdminEvents(null, null, null, null, null, null, dateFrom, null,
+            first, max),
+        () -> String.format("Couldn't select admin events of realm %s", realm));
+  }
+
+  Optional<UserRepresentation> findUserRepresentation(String userId) {
+    return wrapKeycloakReadRequest("getUser", () -> {
+      try {
+        return Optional.of(getRealmResource().users().get(userId).toRepresentation());
+      } catch (NotFoundException exception) {
+        return Optional.<UserRepresentation>empty();
+      }
+    }, () -> String.format("Couldn't find user %s in realm %s", userId, realm));
+  }
+
+  List<String> fetchUserRoleNames(String userId) {
+    return wrapKeycloakReadRequest("getUserRoles",
+        () -> getRealmResource().users().get(userId).roles().realmLevel().listAll(),
+        () -> String.format("Couldn't get roles of user %s in realm %s", userId, realm))
+        .stream().map(RoleRepresentation::getName).collect(Collectors.toList());
+  }
+
+  void notifyUserChanged(String userId) {
+    userChangeListeners.forEach(listener -> listener.userChanged(userId));
+  }
+
+  void notifyUsersReloaded() {
+    userChangeListeners.forEach(UserChangeListener::usersReloaded);
+  }
+
+  private RealmResource createRealmResource() {
+    log.info("Selecting keycloak realm {}", realm);
+    var result = wrapKeycloakClientCall(() -> keycloak.realm(realm),
+        () -> String.format("Couldn't find realm %s", realm));
+    log.info("Keycloak realm {} found", realm);
+    return result;
+  }
+
+  private UsersExtendedResource getUsersExtendedResource() {
+    var result = usersExtendedResource;
+    if (Objects.isNull(result)) {
+      synchronized (this) {
+        result = usersExtendedResource;
+        if (Objects.isNull(result)) {
+          result = keycloak.proxy(UsersExtendedResource.class, URI.create(serverUrl));
+          usersExtendedResource = result;
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Page request that could be executed concurrently. It's executed by the caller thread on join
+   * if executor hasn't started it yet, so walk-through couldn't be stuck when it runs on the
+   * same executor that requests pages.
+   */
+  private static class PageRequest<T> implements Runnable {
+
+    private final Supplier<T> supplier;
+    private final AtomicBoolean started = new AtomicBoolean();
+    private final CompletableFuture<T> result = new CompletableFuture<>();
+
+    PageRequest(Supplier<T> supplier) {
+      this.supplier = supplier;
+    }
+
+    void submit(Executor executor) {
+      if (Objects.isNull(executor)) {
+        return;
+      }
+      try {
+        executor.execute(this);
+      } catch (RejectedExecutionException exception) {
+        log.debug("Page request is rejected, it's executed by the caller thread", exception);
+      }
+    }
+
+    @Override
+    public void run() {
+      if (!started.compareAndSet(false, true)) {
+        return;
+      }
+      try {
+        result.complete(supplier.get());
+      } catch (Throwable throwable) {
+        result.completeExceptionally(throwable);
+      }
+    }
+
+    T join() {
+      run();
+      try {
+        return result.join();
+      } catch (CompletionException exception) {
+        if (exception.getCause() instanceof RuntimeException) {
+          throw (RuntimeException) exception.getCause();
+        }
+        throw exception;
+      }
+    }
+
+    void cancel() {
+      started.set(true);
+    }
+  }
+
+  /**
+   * Perform keycloak request recording its metrics. Exceptions are wrapped in
+   * {@link KeycloakException} with the fail message, a {@link KeycloakException} thrown by the
+   * request itself is rethrown as is. Outcome is reported to the circuit breaker in any case, the
+   * permission is released unrecorded if the request has failed with an {@link Error}.
+   * <p>
+   * Circuit breaker is checked before rate limiter, so requests rejected by the open breaker don't
+   * spend permits, and breaker permission is released if permits aren't acquired.
+   */
+  private <T> T wrapKeycloakRequest(String operation, Supplier<T> supplier,
+      Supplier<String> failMessageSupplier) {
+    var startTime = Objects.isNull(circuitBreaker) ? 0L : circuitBreaker.acquirePermission();
+    if (Objects.nonNull(rateLimiter)) {
+      try {
+        rateLimiter.acquirePermission(operation);
+      } catch (RuntimeException exception) {
+        if (Objects.nonNull(circuitBreaker)) {
+          circuitBreaker.releasePermission();
+        }
+        throw exception;
+      }
+    }
+    var observation = metrics.startRequest(realm, operation);
+    var completed = false;
+    RuntimeException failure = null;
     try {
-      return supplier.get();
+      var result = supplier.get();
+      completed = true;
+      observation.success();
+      return result;
     } catch (RuntimeException exception) {
+      completed = true;
+      failure = exception;
+      observation.failure(exception);
+      if (exception instanceof KeycloakException) {
+        throw exception;
+      }
       throw new KeycloakException(failMessageSupplier.get(), exception);
+    } finally {
+      if (Objects.nonNull(circuitBreaker)) {
+        if (completed) {
+          circuitBreaker.onResult(startTime, failure);
+        } else {
+          circuitBreaker.releasePermission();
+        }
+      }
     }
   }
 
-  private void wrapKeycloakVoidRequest(Runnable runnable, Supplier<String> failMessageSupplier) {
+  /**
+   * Perform a call that is served by the client itself without a keycloak request (e.g. resource
+   * proxy creation or cached access token), so it isn't recorded by metrics and isn't guarded by
+   * circuit breaker and rate limiter. Exceptions are wrapped in
+   * {@link KeycloakException} with the fail message.
+   */
+  private <T> T wrapKeycloakClientCall(Supplier<T> supplier,
+      Supplier<String> failMessageSupplier) {
     try {
-      runnable.run();
+      return supplier.get();
     } catch (RuntimeException exception) {
       throw new KeycloakException(failMessageSupplier.get(), exception);
     }
   }
+
+  private <T> T wrapKeycloakReadRequest(String operation, Supplier<T> supplier,
+      Supplier<String> failMessageSupplier) {
+    if (Objects.isNull(retryPolicy)) {
+      return wrapKeycloakRequest(operation, supplier, failMessageSupplier);
+    }
+    return retryPolicy.execute(operation,
+        () -> wrapKeycloakRequest(operation, supplier, failMessageSupplier));
+  }
+
+  private void wrapKeycloakVoidRequest(String operation, Runnable runnable,
+      Supplier<String> failMessageSupplier) {
+    wrapKeycloakRequest(operation, () -> {
+      runnable.run();
+      return null;
+    }, failMessageSupplier);
+  }
 }
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2023 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.integration.idm.client;
+
+import com.epam.digital.data.platform.integration.idm.model.IdmClientProperties;
+import java.io.Closeable;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.client.IdleConnectionEvictor;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.jboss.resteasy.client.jaxrs.ResteasyClient;
+import org.jboss.resteasy.client.jaxrs.ResteasyClientBuilder;
+import org.jboss.resteasy.client.jaxrs.engines.ApacheHttpClient43Engine;
+
+/**
+ * Http connection pool shared between keycloak admin clients.
+ * <p>
+ * Every {@link ResteasyClient} created by the pool uses the same apache http client, so closing
+ * such resteasy client (e.g. on {@link org.keycloak.admin.client.Keycloak#close()}) doesn't affect
+ * the pool. The pool itself is closed only by {@link KeycloakHttpClientPool#close()}.
+ * <p>
+ * Expired connections and connections idle for longer than max idle time are evicted by the pool's
+ * own evictor: http client doesn't start one for a shared connection manager.
+ */
+@Slf4j
+public class KeycloakHttpClientPool implements Closeable {
+
+  private final PoolingHttpClientConnectionManager connectionManager;
+  private final CloseableHttpClient httpClient;
+  private final IdleConnectionEvictor connectionEvictor;
+
+  public KeycloakHttpClientPool(IdmClientProperties.ConnectionPool properties) {
+    this.connectionManager = new PoolingHttpClientConnectionManager();
+    connectionManager.setMaxTotal(properties.getMaxTotal());
+    connectionManager.setDefaultMaxPerRoute(properties.getMaxPerRoute());
+    connectionManager.setValidateAfterInactivity(
+        (int) properties.getValidateAfterInactivity().toMillis());
+
+    var requestConfig = RequestConfig.custom()
+        .setConnectTimeout((int) properties.getConnectTimeout().toMillis())
+        .setSocketTimeout((int) properties.getSocketTimeout().toMillis())
+        .setConnectionRequestTimeout((int) properties.getConnectionRequestTimeout().toMillis())
+        .build();
+    var defaultKeepAlive = properties.getKeepAlive().toMillis();
+
+    this.httpClient = HttpClients.custom()
+        .setConnectionManager(connectionManager)
+        .setConnectionManagerShared(true)
+        .setDefaultRequestConfig(requestConfig)
+        .setKeepAliveStrategy((response, context) -> {
+          var keepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE
+              .getKeepAliveDuration(response, context);
+          return keepAlive > 0 ? keepAlive : defaultKeepAlive;
+        })
+        .build();
+    var maxIdleTime = properties.getMaxIdleTime().toMillis();
+    this.connectionEvictor = new IdleConnectionEvictor(connectionManager, maxIdleTime,
+        TimeUnit.MILLISECONDS, maxIdleTime, TimeUnit.MILLISECONDS);
+    connectionEvictor.start();
+    log.info("Keycloak http connection pool created with max total {} and max per route {}",
+        properties.getMaxTotal(), properties.getMaxPerRoute());
+  }
+
+  /**
+   * Create resteasy client that sends requests over the shared connection pool.
+   *
+   * @return resteasy client
+   */
+  public ResteasyClient newResteasyClient() {
+    return ((ResteasyClientBuilder) ResteasyClientBuilder.newBuilder())
+        .httpEngine(new ApacheHttpClient43Engine(httpClient, false))
+        .build();
+  }
+
+  /**
+   * @return statistics of the whole pool
+   */
+  public PoolStats getTotalStats() {
+    return connectionManager.getTotalStats();
+  }
+
+  /**
+   * @return statistics of the pool per route (keycloak host)
+   */
+  public Map<String, PoolStats> getRouteStats() {
+    return connectionManager.getRoutes().stream()
+        .collect(Collectors.toMap(route -> route.getTargetHost().toURI(),
+            connectionManager::getStats, (first, second) -> first));
+  }
+
+  @Override
+  public void close() {
+    connectionEvictor.shutdown();
+    try {
+      httpClient.close();
+    } catch (Exception exception) {
+      log.warn("Couldn't close keycloak http client", exception);
+    }
+    connectionManager.shutdown();
+  }
+}
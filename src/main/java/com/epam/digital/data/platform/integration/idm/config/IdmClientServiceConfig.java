@@ -18,9 +18,17 @@ package com.epam.digital.data.platform.integration.idm.config;
 
 import com.epam.digital.data.platform.integration.idm.factory.IdmServiceFactory;
 import com.epam.digital.data.platform.integration.idm.mapper.IdmUsersMapper;
+import com.epam.digital.data.platform.integration.idm.metrics.KeycloakClientMetrics;
+import com.epam.digital.data.platform.integration.idm.metrics.MicrometerKeycloakClientMetrics;
+import com.epam.digital.data.platform.integration.idm.model.IdmClientProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.cloud.openfeign.FeignClientsConfiguration;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
@@ -40,10 +48,35 @@ public class IdmClientServiceConfig {
   @Value("${keycloak.url}")
   private String serverUrl;
 
+  @Bean
+  @ConfigurationProperties(prefix = "keycloak.idm-client")
+  public IdmClientProperties idmClientProperties() {
+    return new IdmClientProperties();
+  }
+
   @Bean
   @Autowired
-  public IdmServiceFactory idmServiceFactory(IdmUsersMapper idmUsersMapper) {
-    return new IdmServiceFactory(serverUrl, applicationContext, idmUsersMapper);
+  public IdmServiceFactory idmServiceFactory(IdmUsersMapper idmUsersMapper,
+      IdmClientProperties idmClientProperties) {
+    return new IdmServiceFactory(serverUrl, applicationContext, idmUsersMapper,
+        idmClientProperties);
+  }
+
+  /**
+   * Records keycloak client metrics to micrometer registry if micrometer is on the classpath.
+   */
+  @Configuration
+  @ConditionalOnClass(MeterRegistry.class)
+  static class MetricsConfig {
+
+    @Bean
+    @ConditionalOnMissingBean(KeycloakClientMetrics.class)
+    public KeycloakClientMetrics keycloakClientMetrics(
+        ObjectProvider<MeterRegistry> meterRegistry) {
+      return meterRegistry.stream().findFirst()
+          .<KeycloakClientMetrics>map(MicrometerKeycloakClientMetrics::new)
+          .orElse(KeycloakClientMetrics.NOOP);
+    }
   }
 
 }
@@ -0,0 +1,29 @@
+/*
+ * Copyright 2023 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.idm.exception;
+
+/**
+ * The exception is thrown without calling keycloak when circuit breaker of the realm is open
+ * because keycloak has been failing or responding slowly.
+ */
+public class KeycloakCircuitBreakerOpenException extends KeycloakException {
+
+  public KeycloakCircuitBreakerOpenException(String message) {
+    super(message);
+  }
+}
@@ -16,43 +16,327 @@
 
 package com.epam.digital.data.platform.integration.idm.factory;
 
+import com.epam.digital.data.platform.integration.idm.bulk.BulkUserCreationPipeline;
+import com.epam.digital.data.platform.integration.idm.bulk.CheckpointStore;
+import com.epam.digital.data.platform.integration.idm.cache.RealmPublicKeyCache;
+import com.epam.digital.data.platform.integration.idm.cache.UserIdCache;
+import com.epam.digital.data.platform.integration.idm.client.AdminEventCursorStore;
+import com.epam.digital.data.platform.integration.idm.client.AdminEventsSync;
+import com.epam.digital.data.platform.integration.idm.client.FileAdminEventCursorStore;
+import com.epam.digital.data.platform.integration.idm.client.InMemoryAdminEventCursorStore;
 import com.epam.digital.data.platform.integration.idm.client.KeycloakAdminClient;
+import com.epam.digital.data.platform.integration.idm.client.KeycloakHttpClientPool;
 import com.epam.digital.data.platform.integration.idm.client.PublicKeycloakAuthClient;
 import com.epam.digital.data.platform.integration.idm.mapper.IdmUsersMapper;
+import com.epam.digital.data.platform.integration.idm.metrics.KeycloakClientMetrics;
+import com.epam.digital.data.platform.integration.idm.model.AttributeDictionary;
+import com.epam.digital.data.platform.integration.idm.model.IdmClientProperties;
+import com.epam.digital.data.platform.integration.idm.replica.UserReplica;
+import com.epam.digital.data.platform.integration.idm.resilience.KeycloakCircuitBreaker;
+import com.epam.digital.data.platform.integration.idm.resilience.KeycloakRateLimiter;
+import com.epam.digital.data.platform.integration.idm.resilience.KeycloakRetryPolicy;
+import com.epam.digital.data.platform.integration.idm.service.AsyncIdmService;
+import com.epam.digital.data.platform.integration.idm.service.AsyncKeycloakIdmService;
+import com.epam.digital.data.platform.integration.idm.service.CoalescingIdmService;
 import com.epam.digital.data.platform.integration.idm.service.IdmService;
 import com.epam.digital.data.platform.integration.idm.service.KeycloakIdmService;
 import com.epam.digital.data.platform.integration.idm.service.PublicIdmService;
 import com.epam.digital.data.platform.integration.idm.service.PublicKeycloakIdmService;
-import lombok.RequiredArgsConstructor;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.Closeable;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.apache.http.pool.PoolStats;
 import org.keycloak.OAuth2Constants;
 import org.keycloak.admin.client.KeycloakBuilder;
 import org.springframework.cloud.openfeign.FeignClientBuilder;
+import org.springframework.cloud.sleuth.Tracer;
+import org.springframework.cloud.sleuth.instrument.async.TraceableExecutorService;
 import org.springframework.context.ApplicationContext;
 
-@RequiredArgsConstructor
-public class IdmServiceFactory {
+public class IdmServiceFactory implements Closeable {
 
   private static final String KEYCLOAK_AUTH_URL_PATTERN = "%s/auth";
   private final String serverUrl;
   private final ApplicationContext applicationContext;
   private final IdmUsersMapper idmUsersMapper;
+  private final IdmClientProperties properties;
+  private final KeycloakHttpClientPool httpClientPool;
+  private final ScheduledExecutorService scheduler;
+  private final IdmServiceRegistry registry;
+  private final ExecutorService executor;
+  private final ExecutorService pageExecutor;
+  private final KeycloakClientMetrics metrics;
+  private final Map<String, KeycloakCircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+  private final Map<String, KeycloakRetryPolicy> retryPolicies = new ConcurrentHashMap<>();
+  private final Map<String, KeycloakRateLimiter> rateLimiters = new ConcurrentHashMap<>();
+  private final Map<String, UserReplica> userReplicas = new ConcurrentHashMap<>();
+  private final Map<String, AdminEventsSync> adminEventsSyncs = new ConcurrentHashMap<>();
+  private final AdminEventCursorStore adminEventCursorStore;
+  private final AttributeDictionary attributeDictionary;
 
+  public IdmServiceFactory(String serverUrl, ApplicationContext applicationContext,
+      IdmUsersMapper idmUsersMapper) {
+    this(serverUrl, applicationContext, idmUsersMapper, new IdmClientProperties());
+  }
+
+  public IdmServiceFactory(String serverUrl, ApplicationContext applicationContext,
+      IdmUsersMapper idmUsersMapper, IdmClientProperties properties) {
+    this.serverUrl = serverUrl;
+    this.applicationContext = applicationContext;
+    this.idmUsersMapper = idmUsersMapper;
+    this.properties = properties;
+    this.httpClientPool = new KeycloakHttpClientPool(properties.getConnectionPool());
+    this.scheduler = Executors.newSingleThreadScheduledExecutor(
+        new ThreadFactoryBuilder().setNameFormat("idm-client-scheduler-%d").setDaemon(true)
+            .build());
+    this.registry = new IdmServiceRegistry(properties.getRegistry(), scheduler,
+        this::createKeycloakAdminClient, this::newIdmService);
+    this.executor = createExecutor(properties.getAsync());
+    this.pageExecutor = createPageExecutor(properties.getAsync());
+    this.metrics = Objects.isNull(applicationContext) ? KeycloakClientMetrics.NOOP
+        : applicationContext.getBeanProvider(KeycloakClientMetrics.class)
+            .getIfAvailable(() -> KeycloakClientMetrics.NOOP);
+    var cursorDirectory = properties.getAdminEventsSync().getCursorDirectory();
+    this.adminEventCursorStore = Objects.isNull(cursorDirectory)
+        ? new InMemoryAdminEventCursorStore()
+        : new FileAdminEventCursorStore(Path.of(cursorDirectory));
+    this.attributeDictionary = properties.getCompactAttributes().isEnabled()
+        ? new AttributeDictionary(properties.getCompactAttributes()) : null;
+  }
+
+  /**
+   * Create idm service backed by the registry, services created for the same realm and client id
+   * share the registered keycloak client.
+   *
+   * @see IdmServiceFactory#getIdmService(String, String, String)
+   */
   public IdmService createIdmService(String realm, String clientId, String clientSecret) {
+    return getIdmService(realm, clientId, clientSecret);
+  }
+
+  /**
+   * Get idm service from the registry keyed by realm and client id. Keycloak client of the
+   * registered service is reused between calls and closed after it wasn't used for
+   * {@code keycloak.idm-client.registry.idle-timeout}, returned service re-creates it on demand.
+   */
+  public IdmService getIdmService(String realm, String clientId, String clientSecret) {
+    registry.acquire(realm, clientId, clientSecret);
+    return new RegisteredIdmService(registry, realm, clientId, clientSecret);
+  }
+
+  /**
+   * Create a new asynchronous idm service that runs operations on the executor shared by the
+   * factory.
+   *
+   * @see IdmServiceFactory#createIdmService(String, String, String)
+   */
+  public AsyncIdmService createAsyncIdmService(String realm, String clientId,
+      String clientSecret) {
+    return createAsyncIdmService(createIdmService(realm, clientId, clientSecret));
+  }
+
+  /**
+   * Create asynchronous idm service backed by the registry.
+   *
+   * @see IdmServiceFactory#getIdmService(String, String, String)
+   */
+  public AsyncIdmService getAsyncIdmService(String realm, String clientId, String clientSecret) {
+    return createAsyncIdmService(getIdmService(realm, clientId, clientSecret));
+  }
+
+  /**
+   * Create asynchronous idm service that runs operations of given service on the executor shared
+   * by the factory.
+   */
+  public AsyncIdmService createAsyncIdmService(IdmService idmService) {
+    return new AsyncKeycloakIdmService(idmService, executor, pageExecutor,
+        properties.getAsync().getMaxPrefetchedPages());
+  }
+
+  private IdmService newIdmService(KeycloakAdminClient keycloakAdminClient) {
+    var userIdCacheProperties = properties.getUserIdCache();
+    var idmService = KeycloakIdmService.builder()
+        .client(keycloakAdminClient)
+        .idmUsersMapper(idmUsersMapper)
+        .userIdCache(
+            userIdCacheProperties.isEnabled() ? new UserIdCache(userIdCacheProperties) : null)
+        .executor(pageExecutor)
+        .bulkParallelism(properties.getBulk().getParallelism())
+        .attributeDictionary(attributeDictionary)
+        .build();
+    return properties.getCoalescing().isEnabled() ? new CoalescingIdmService(idmService)
+        : idmService;
+  }
+
+  private KeycloakAdminClient createKeycloakAdminClient(String realm, String clientId,
+      String clientSecret) {
     var serverAthUrl = String.format(KEYCLOAK_AUTH_URL_PATTERN, this.serverUrl);
     var keycloak = KeycloakBuilder.builder()
         .clientSecret(clientSecret)
         .grantType(OAuth2Constants.CLIENT_CREDENTIALS)
         .clientId(clientId).realm(realm)
         .serverUrl(serverAthUrl)
+        .resteasyClient(httpClientPool.newResteasyClient())
+        .build();
+    var roleCatalogProperties = properties.getRoleCatalog();
+    var roleMembersProperties = properties.getRoleMembers();
+    var tokenRefreshProperties = properties.getTokenRefresh();
+    return KeycloakAdminClient.builder()
+        .realm(realm)
+        .serverUrl(serverAthUrl)
+        .keycloak(keycloak)
+        .roleCatalogRefreshInterval(
+            roleCatalogProperties.isEnabled() ? roleCatalogProperties.getRefreshInterval() : null)
+        .scheduler(scheduler)
+        .executor(pageExecutor)
+        .roleMembersPageSize(roleMembersProperties.getPageSize())
+        .roleMembersParallelism(roleMembersProperties.getParallelism())
+        .metrics(metrics)
+        .tokenRefreshBeforeExpiry(tokenRefreshProperties.isEnabled()
+            ? tokenRefreshProperties.getRefreshBeforeExpiry() : null)
+        .tokenRefreshRetryInterval(tokenRefreshProperties.getRetryInterval())
+        .circuitBreaker(getCircuitBreaker(realm))
+        .retryPolicy(getRetryPolicy(realm))
+        .rateLimiter(getRateLimiter(realm))
+        .userReplica(getUserReplica(realm))
+        .adminEventsSync(getAdminEventsSync(realm))
+        .build();
+  }
+
+  private KeycloakCircuitBreaker getCircuitBreaker(String realm) {
+    var circuitBreakerProperties = properties.getCircuitBreaker();
+    if (!circuitBreakerProperties.isEnabled()) {
+      return null;
+    }
+    return circuitBreakers.computeIfAbsent(realm,
+        key -> new KeycloakCircuitBreaker(serverUrl, realm, circuitBreakerProperties, metrics));
+  }
+
+  private KeycloakRetryPolicy getRetryPolicy(String realm) {
+    var retryProperties = properties.getRetry();
+    if (!retryProperties.isEnabled()) {
+      return null;
+    }
+    return retryPolicies.computeIfAbsent(realm,
+        key -> new KeycloakRetryPolicy(realm, retryProperties, metrics));
+  }
+
+  private KeycloakRateLimiter getRateLimiter(String realm) {
+    var rateLimiterProperties = properties.getRateLimiter();
+    if (!rateLimiterProperties.isEnabled()) {
+      return null;
+    }
+    return rateLimiters.computeIfAbsent(realm,
+        key -> new KeycloakRateLimiter(realm, rateLimiterProperties, metrics));
+  }
+
+  private UserReplica getUserReplica(String realm) {
+    var replicaProperties = properties.getReplica();
+    if (!replicaProperties.isEnabled()) {
+      return null;
+    }
+    return userReplicas.computeIfAbsent(realm,
+        key -> new UserReplica(realm, replicaProperties, scheduler, executor, metrics,
+            attributeDictionary));
+  }
+
+  private AdminEventsSync getAdminEventsSync(String realm) {
+    var adminEventsSyncProperties = properties.getAdminEventsSync();
+    if (!adminEventsSyncProperties.isEnabled()) {
+      return null;
+    }
+    return adminEventsSyncs.computeIfAbsent(realm,
+        key -> new AdminEventsSync(realm, getUserReplica(realm), adminEventCursorStore,
+            adminEventsSyncProperties, scheduler, executor));
+  }
+
+  private ExecutorService createExecutor(IdmClientProperties.Async asyncProperties) {
+    var threadPoolExecutor = new ThreadPoolExecutor(asyncProperties.getCorePoolSize(),
+        asyncProperties.getMaxPoolSize(), asyncProperties.getKeepAlive().toMillis(),
+        TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(asyncProperties.getQueueCapacity()),
+        new ThreadFactoryBuilder().setNameFormat("idm-client-worker-%d").setDaemon(true).build());
+    threadPoolExecutor.allowCoreThreadTimeOut(true);
+    return traceable(threadPoolExecutor);
+  }
+
+  /**
+   * Executor of pages requested within operations: it has no queue and the requesting thread runs
+   * a page itself when all threads are busy, so it never waits for pages queued behind others.
+   */
+  private ExecutorService createPageExecutor(IdmClientProperties.Async asyncProperties) {
+    var threadPoolExecutor = new ThreadPoolExecutor(0, asyncProperties.getPageMaxPoolSize(),
+        asyncProperties.getKeepAlive().toMillis(), TimeUnit.MILLISECONDS, new SynchronousQueue<>(),
+        new ThreadFactoryBuilder().setNameFormat("idm-client-page-%d").setDaemon(true).build(),
+        new ThreadPoolExecutor.CallerRunsPolicy());
+    return traceable(threadPoolExecutor);
+  }
+
+  private ExecutorService traceable(ThreadPoolExecutor threadPoolExecutor) {
+    var tracingEnabled = Objects.nonNull(applicationContext)
+        && Objects.nonNull(applicationContext.getBeanProvider(Tracer.class).getIfAvailable());
+    return tracingEnabled
+        ? new TraceableExecutorService(applicationContext, threadPoolExecutor)
+        : threadPoolExecutor;
+  }
+
+  /**
+   * Create pipeline of bulk user creation that runs on the executor shared by the factory.
+   *
+   * @param idmService      service of the realm to create users in
+   * @param checkpointStore store of completed users, nullable
+   */
+  public BulkUserCreationPipeline createBulkUserCreationPipeline(IdmService idmService,
+      CheckpointStore checkpointStore) {
+    return BulkUserCreationPipeline.builder()
+        .idmService(idmService)
+        .executor(executor)
+        .parallelism(properties.getBulk().getParallelism())
+        .checkpointStore(checkpointStore)
         .build();
-    var keycloakAdminClient = new KeycloakAdminClient(realm, serverAthUrl, keycloak);
-    return new KeycloakIdmService(keycloakAdminClient, idmUsersMapper);
   }
 
   public PublicIdmService createPublicIdmService() {
+    var publicKeyCacheProperties = properties.getPublicKeyCache();
     return new PublicKeycloakIdmService(
         new FeignClientBuilder(applicationContext).forType(PublicKeycloakAuthClient.class,
-            "public-keycloak-auth-client").url(serverUrl).build());
+            "public-keycloak-auth-client").url(serverUrl).build(),
+        publicKeyCacheProperties.isEnabled()
+            ? new RealmPublicKeyCache(publicKeyCacheProperties) : null);
   }
 
+  /**
+   * @return statistics of the http connection pool shared by all created keycloak admin clients
+   */
+  public PoolStats getConnectionPoolStats() {
+    return httpClientPool.getTotalStats();
+  }
+
+  /**
+   * @return hit, miss and eviction statistics of the idm service registry
+   */
+  public CacheStats getIdmServiceRegistryStats() {
+    return registry.stats();
+  }
+
+  @Override
+  public void close() {
+    registry.close();
+    adminEventsSyncs.values().forEach(AdminEventsSync::close);
+    userReplicas.values().forEach(UserReplica::close);
+    executor.shutdownNow();
+    pageExecutor.shutdownNow();
+    scheduler.shutdownNow();
+    httpClientPool.close();
+  }
 }
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2023 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.integration.idm.factory;
+
+import com.epam.digital.data.platform.integration.idm.client.KeycloakAdminClient;
+import com.epam.digital.data.platform.integration.idm.exception.KeycloakException;
+import com.epam.digital.data.platform.integration.idm.model.IdmClientProperties;
+import com.epam.digital.data.platform.integration.idm.service.IdmService;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import java.io.Closeable;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bounded registry of idm services keyed by realm and client id. Services that weren't used for
+ * configured idle timeout are evicted and their keycloak clients are closed. A client removed from
+ * the registry while calls are running on it (e.g. evicted by max size or replaced after secret
+ * change) is closed once the last of these calls completes.
+ */
+@Slf4j
+class IdmServiceRegistry implements Closeable {
+
+  private final Cache<Key, Entry> cache;
+  private final ScheduledFuture<?> cleanUpTask;
+  private final ClientCreator clientCreator;
+  private final Function<KeycloakAdminClient, IdmService> serviceCreator;
+
+  IdmServiceRegistry(IdmClientProperties.Registry properties,
+      ScheduledExecutorService scheduler, ClientCreator clientCreator,
+      Function<KeycloakAdminClient, IdmService> serviceCreator) {
+    this.clientCreator = clientCreator;
+    this.serviceCreator = serviceCreator;
+    this.cache = CacheBuilder.newBuilder()
+        .maximumSize(properties.getMaxSize())
+        .expireAfterAccess(properties.getIdleTimeout().toMillis(), TimeUnit.MILLISECONDS)
+        .recordStats()
+        .<Key, Entry>removalListener(this::onRemoval)
+        .build();
+    var cleanUpInterval = properties.getCleanUpInterval().toMillis();
+    this.cleanUpTask = scheduler.scheduleWithFixedDelay(cache::cleanUp, cleanUpInterval,
+        cleanUpInterval, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Get registered idm service or create a new one.
+   *
+   * @param realm        realm name
+   * @param clientId     client id
+   * @param clientSecret client secret, service is re-created if secret has been changed
+   * @return registered idm service
+   */
+  IdmService acquire(String realm, String clientId, String clientSecret) {
+    return getEntry(new Key(realm, clientId), clientSecret).getIdmService();
+  }
+
+  /**
+   * Run a call on registered idm service or on a new one. Keycloak client of the service isn't
+   * closed until the call completes even if the service is removed from the registry meanwhile.
+   *
+   * @param realm        realm name
+   * @param clientId     client id
+   * @param clientSecret client secret, service is re-created if secret has been changed
+   * @param call         call of the service
+   * @return result of the call
+   */
+  <T> T execute(String realm, String clientId, String clientSecret, Function<IdmService, T> call) {
+    var key = new Key(realm, clientId);
+    var entry = getEntry(key, clientSecret);
+    while (!entry.retain()) {
+      entry = getEntry(key, clientSecret);
+    }
+    try {
+      return call.apply(entry.getIdmService());
+    } finally {
+      entry.release();
+    }
+  }
+
+  CacheStats stats() {
+    return cache.stats();
+  }
+
+  @Override
+  public void close() {
+    cleanUpTask.cancel(false);
+    cache.invalidateAll();
+    cache.cleanUp();
+  }
+
+  private Entry getEntry(Key key, String clientSecret) {
+    var entry = get(key, clientSecret);
+    if (!Objects.equals(entry.getClientSecret(), clientSecret)) {
+      log.info("Client secret of client {} in realm {} has been changed", key.getClientId(),
+          key.getRealm());
+      cache.asMap().remove(key, entry);
+      entry = get(key, clientSecret);
+    }
+    return entry;
+  }
+
+  private Entry get(Key key, String clientSecret) {
+    try {
+      return cache.get(key, () -> {
+        log.info("Registering idm service for client {} in realm {}", key.getClientId(),
+            key.getRealm());
+        var client = clientCreator.create(key.getRealm(), key.getClientId(), clientSecret);
+        return new Entry(clientSecret, client, serviceCreator.apply(client));
+      });
+    } catch (ExecutionException | UncheckedExecutionException exception) {
+      throw new KeycloakException(
+          String.format("Couldn't create idm service for client %s in realm %s",
+              key.getClientId(), key.getRealm()), exception);
+    }
+  }
+
+  private void onRemoval(RemovalNotification<Key, Entry> notification) {
+    var key = notification.getKey();
+    log.info("Idm service for client {} in realm {} removed from registry, cause {}",
+        key.getClientId(), key.getRealm(), notification.getCause());
+    notification.getValue().remove();
+  }
+
+  @FunctionalInterface
+  interface ClientCreator {
+
+    KeycloakAdminClient create(String realm, String clientId, String clientSecret);
+  }
+
+  @Value
+  private static class Key {
+
+    String realm;
+    String clientId;
+  }
+
+  @RequiredArgsConstructor
+  private static class Entry {
+
+    @Getter
+    private final String clientSecret;
+    private final KeycloakAdminClient client;
+    @Getter
+    private final IdmService idmService;
+    private int activeCalls;
+    private boolean removed;
+
+    /**
+     * @return {@code false} if the entry has been removed from the registry
+     */
+    synchronized boolean retain() {
+      if (removed) {
+        return false;
+      }
+      activeCalls++;
+      return true;
+    }
+
+    void release() {
+      synchronized (this) {
+        if (--activeCalls > 0 || !removed) {
+          return;
+        }
+      }
+      client.close();
+    }
+
+    void remove() {
+      synchronized (this) {
+        removed = true;
+        if (activeCalls > 0) {
+          return;
+        }
+      }
+      client.close();
+    }
+  }
+}
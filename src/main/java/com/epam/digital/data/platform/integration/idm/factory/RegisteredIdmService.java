@@ -0,0 +1,178 @@
+/*
+ * Copyright 2023 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.integration.idm.factory;
+
+import com.epam.digital.data.platform.integration.idm.model.BulkOperationReport;
+import com.epam.digital.data.platform.integration.idm.model.IdmRole;
+import com.epam.digital.data.platform.integration.idm.model.IdmUser;
+import com.epam.digital.data.platform.integration.idm.model.IdmUsersResponse;
+import com.epam.digital.data.platform.integration.idm.model.SearchUserQuery;
+import com.epam.digital.data.platform.integration.idm.model.SearchUsersByAttributesRequestDto;
+import com.epam.digital.data.platform.integration.idm.model.SearchUsersByEqualsAndStartsWithAttributesRequestDto;
+import com.epam.digital.data.platform.integration.idm.model.SearchUsersByRoleAndAttributesRequestDto;
+import com.epam.digital.data.platform.integration.idm.model.UserPatch;
+import com.epam.digital.data.platform.integration.idm.service.IdmService;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import lombok.RequiredArgsConstructor;
+import org.keycloak.representations.idm.RoleRepresentation;
+import org.keycloak.representations.idm.UserRepresentation;
+
+/**
+ * Idm service handle that acquires the actual service from {@link IdmServiceRegistry} on every
+ * call, so it stays usable even after the registered service has been evicted and closed. Keycloak
+ * client of the acquired service is kept open until the call completes.
+ */
+@RequiredArgsConstructor
+class RegisteredIdmService implements IdmService {
+
+  private final IdmServiceRegistry registry;
+  private final String realm;
+  private final String clientId;
+  private final String clientSecret;
+
+  @Override
+  public String getClientAccessToken() {
+    return call(IdmService::getClientAccessToken);
+  }
+
+  @Override
+  public List<IdmRole> getRoles() {
+    return call(IdmService::getRoles);
+  }
+
+  @Override
+  public List<RoleRepresentation> getRoleRepresentations() {
+    return call(IdmService::getRoleRepresentations);
+  }
+
+  @Override
+  public void removeRole(String username, String role) {
+    run(service -> service.removeRole(username, role));
+  }
+
+  @Override
+  public void removeRoles(String username, List<RoleRepresentation> roles) {
+    run(service -> service.removeRoles(username, roles));
+  }
+
+  @Override
+  public void addRole(String username, String role) {
+    run(service -> service.addRole(username, role));
+  }
+
+  @Override
+  public void addRoles(String username, List<RoleRepresentation> roles) {
+    run(service -> service.addRoles(username, roles));
+  }
+
+  @Override
+  public BulkOperationReport assignRoles(Map<String, List<RoleRepresentation>> rolesByUsername) {
+    return call(service -> service.assignRoles(rolesByUsername));
+  }
+
+  @Override
+  public BulkOperationReport unassignRoles(
+      Map<String, List<RoleRepresentation>> rolesByUsername) {
+    return call(service -> service.unassignRoles(rolesByUsername));
+  }
+
+  @Override
+  public List<IdmUser> getRoleUserMembers(String role, Integer offset, Integer limit) {
+    return call(service -> service.getRoleUserMembers(role, offset, limit));
+  }
+
+  @Override
+  public List<IdmUser> getAllRoleUserMembers(String role) {
+    return call(service -> service.getAllRoleUserMembers(role));
+  }
+
+  @Override
+  public List<IdmUser> searchUsers(SearchUserQuery searchUserQuery) {
+    return call(service -> service.searchUsers(searchUserQuery));
+  }
+
+  @Override
+  public List<IdmUser> searchUsers(
+      SearchUsersByEqualsAndStartsWithAttributesRequestDto searchUserQuery) {
+    return call(service -> service.searchUsers(searchUserQuery));
+  }
+
+  @Override
+  public IdmUsersResponse searchUsers(SearchUsersByAttributesRequestDto requestDto) {
+    return call(service -> service.searchUsers(requestDto));
+  }
+
+  @Override
+  public IdmUsersResponse searchUsersByRoleAndAttributes(
+      SearchUsersByRoleAndAttributesRequestDto requestDto) {
+    return call(service -> service.searchUsersByRoleAndAttributes(requestDto));
+  }
+
+  @Override
+  public List<IdmUser> getUserByUserName(String username) {
+    return call(service -> service.getUserByUserName(username));
+  }
+
+  @Override
+  public void saveUserAttribute(String username, String attribute, List<String> values) {
+    run(service -> service.saveUserAttribute(username, attribute, values));
+  }
+
+  @Override
+  public List<RoleRepresentation> getUserRoles(String username) {
+    return call(service -> service.getUserRoles(username));
+  }
+
+  @Override
+  public UserRepresentation getUserRepresentationByUserName(String username) {
+    return call(service -> service.getUserRepresentationByUserName(username));
+  }
+
+  @Override
+  public void updateUserRepresentation(UserRepresentation user) {
+    run(service -> service.updateUserRepresentation(user));
+  }
+
+  @Override
+  public void patchUser(String username, UserPatch patch) {
+    run(service -> service.patchUser(username, patch));
+  }
+
+  @Override
+  public void createUserRepresentation(UserRepresentation user, List<RoleRepresentation> roles) {
+    run(service -> service.createUserRepresentation(user, roles));
+  }
+
+  @Override
+  public String createUser(UserRepresentation user, List<RoleRepresentation> roles) {
+    return call(service -> service.createUser(user, roles));
+  }
+
+  private <T> T call(Function<IdmService, T> call) {
+    return registry.execute(realm, clientId, clientSecret, call);
+  }
+
+  private void run(Consumer<IdmService> call) {
+    registry.execute(realm, clientId, clientSecret, service -> {
+      call.accept(service);
+      return null;
+    });
+  }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2023 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.integration.idm.metrics;
+
+import com.epam.digital.data.platform.integration.idm.resilience.KeycloakCircuitBreaker;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Metrics of keycloak requests performed by keycloak admin client. Micrometer implementation is
+ * {@link MicrometerKeycloakClientMetrics}, the interface keeps the client independent of
+ * micrometer that is an optional dependency.
+ */
+public interface KeycloakClientMetrics {
+
+  KeycloakClientMetrics NOOP = (realm, operation) -> RequestObservation.NOOP;
+
+  /**
+   * Start observation of a keycloak request.
+   *
+   * @param realm     realm of the client
+   * @param operation operation name, e.g. {@code searchUsers}
+   * @return observation that has to be completed once the request is done
+   */
+  RequestObservation startRequest(String realm, String operation);
+
+  /**
+   * Record state transition of the circuit breaker of a realm.
+   *
+   * @param realm     realm of the circuit breaker
+   * @param fromState previous state
+   * @param toState   new state
+   */
+  default void circuitBreakerStateChanged(String realm, KeycloakCircuitBreaker.State fromState,
+      KeycloakCircuitBreaker.State toState) {
+  }
+
+  /**
+   * Record retry of a failed read request.
+   *
+   * @param realm     realm of the client
+   * @param operation operation name
+   * @param permitted {@code false} if the retry has been rejected by exhausted retry budget
+   */
+  default void requestRetried(String realm, String operation, boolean permitted) {
+  }
+
+  /**
+   * Register rate limiter of a realm or of an operation of the realm.
+   *
+   * @param realm            realm of the rate limiter
+   * @param scope            {@code realm} or operation name
+   * @param permitsPerSecond current permit rate
+   */
+  default void rateLimiterCreated(String realm, String scope, DoubleSupplier permitsPerSecond) {
+  }
+
+  /**
+   * Record time a request has waited for rate limiter permits.
+   *
+   * @param realm     realm of the client
+   * @param operation operation name
+   * @param waitTime  time spent waiting for permits
+   * @param acquired  {@code false} if permits haven't been acquired within the timeout
+   */
+  default void rateLimiterWaited(String realm, String operation, Duration waitTime,
+      boolean acquired) {
+  }
+
+  /**
+   * Record load of the user replica of a realm.
+   *
+   * @param realm     realm of the replica
+   * @param watermark freshness watermark of loaded replica
+   * @param users     number of replicated users
+   */
+  default void userReplicaLoaded(String realm, Instant watermark, int users) {
+  }
+
+  interface RequestObservation {
+
+    RequestObservation NOOP = new RequestObservation() {
+      @Override
+      public void success() {
+      }
+
+      @Override
+      public void failure(Exception exception) {
+      }
+    };
+
+    void success();
+
+    /**
+     * @param exception exception thrown by the keycloak request before it's wrapped in
+     *                  {@link com.epam.digital.data.platform.integration.idm.exception.KeycloakException}
+     */
+    void failure(Exception exception);
+  }
+}
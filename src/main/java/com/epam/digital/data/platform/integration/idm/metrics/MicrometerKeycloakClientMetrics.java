@@ -0,0 +1,151 @@
+/*
+ * Copyright 2023 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.integration.idm.metrics;
+
+import com.epam.digital.data.platform.integration.idm.resilience.KeycloakCircuitBreaker;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleSupplier;
+
+/**
+ * {@link KeycloakClientMetrics} that records:
+ * <ul>
+ *   <li>{@code keycloak.client.requests} timer tagged by realm, operation and outcome</li>
+ *   <li>{@code keycloak.client.errors} counter tagged by realm, operation and cause</li>
+ *   <li>{@code keycloak.client.requests.active} gauge of in-flight requests tagged by realm and
+ *   operation</li>
+ *   <li>{@code keycloak.client.circuit-breaker.state} gauge of circuit breaker state ordinal
+ *   (0 - closed, 1 - open, 2 - half-open) tagged by realm</li>
+ *   <li>{@code keycloak.client.circuit-breaker.transitions} counter tagged by realm, from and to
+ *   states</li>
+ *   <li>{@code keycloak.client.retries} counter of read request retries tagged by realm,
+ *   operation and outcome ({@code retried} or {@code budget_exhausted})</li>
+ *   <li>{@code keycloak.client.rate-limiter.rate} gauge of permits per second tagged by realm and
+ *   scope ({@code realm} or operation name)</li>
+ *   <li>{@code keycloak.client.rate-limiter.wait} timer of waiting for permits tagged by realm,
+ *   operation and outcome ({@code acquired} or {@code rejected})</li>
+ *   <li>{@code keycloak.client.replica.watermark} gauge of user replica freshness watermark in
+ *   epoch seconds and {@code keycloak.client.replica.users} gauge of replicated users tagged by
+ *   realm</li>
+ * </ul>
+ */
+public class MicrometerKeycloakClientMetrics implements KeycloakClientMetrics {
+
+  static final String REQUESTS_METRIC = "keycloak.client.requests";
+  static final String ACTIVE_REQUESTS_METRIC = "keycloak.client.requests.active";
+  static final String ERRORS_METRIC = "keycloak.client.errors";
+  static final String CIRCUIT_BREAKER_STATE_METRIC = "keycloak.client.circuit-breaker.state";
+  static final String CIRCUIT_BREAKER_TRANSITIONS_METRIC =
+      "keycloak.client.circuit-breaker.transitions";
+  static final String RETRIES_METRIC = "keycloak.client.retries";
+  static final String RATE_LIMITER_RATE_METRIC = "keycloak.client.rate-limiter.rate";
+  static final String RATE_LIMITER_WAIT_METRIC = "keycloak.client.rate-limiter.wait";
+  static final String REPLICA_WATERMARK_METRIC = "keycloak.client.replica.watermark";
+  static final String REPLICA_USERS_METRIC = "keycloak.client.replica.users";
+
+  private final MeterRegistry meterRegistry;
+  private final Map<List<String>, AtomicInteger> activeRequests = new ConcurrentHashMap<>();
+  private final Map<String, AtomicInteger> circuitBreakerStates = new ConcurrentHashMap<>();
+  private final Map<String, AtomicLong> replicaWatermarks = new ConcurrentHashMap<>();
+  private final Map<String, AtomicInteger> replicaUsers = new ConcurrentHashMap<>();
+
+  public MicrometerKeycloakClientMetrics(MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+  }
+
+  @Override
+  public RequestObservation startRequest(String realm, String operation) {
+    var active = activeRequests.computeIfAbsent(List.of(realm, operation),
+        key -> meterRegistry.gauge(ACTIVE_REQUESTS_METRIC,
+            Tags.of("realm", realm, "operation", operation), new AtomicInteger()));
+    active.incrementAndGet();
+    var sample = Timer.start(meterRegistry);
+    return new RequestObservation() {
+      @Override
+      public void success() {
+        active.decrementAndGet();
+        sample.stop(timer(realm, operation, "success"));
+      }
+
+      @Override
+      public void failure(Exception exception) {
+        active.decrementAndGet();
+        sample.stop(timer(realm, operation, "failure"));
+        meterRegistry.counter(ERRORS_METRIC, "realm", realm, "operation", operation, "cause",
+            exception.getClass().getSimpleName()).increment();
+      }
+    };
+  }
+
+  @Override
+  public void circuitBreakerStateChanged(String realm, KeycloakCircuitBreaker.State fromState,
+      KeycloakCircuitBreaker.State toState) {
+    circuitBreakerStates.computeIfAbsent(realm,
+        key -> meterRegistry.gauge(CIRCUIT_BREAKER_STATE_METRIC, Tags.of("realm", realm),
+            new AtomicInteger())).set(toState.ordinal());
+    meterRegistry.counter(CIRCUIT_BREAKER_TRANSITIONS_METRIC, "realm", realm, "from",
+        fromState.name(), "to", toState.name()).increment();
+  }
+
+  @Override
+  public void requestRetried(String realm, String operation, boolean permitted) {
+    meterRegistry.counter(RETRIES_METRIC, "realm", realm, "operation", operation, "outcome",
+        permitted ? "retried" : "budget_exhausted").increment();
+  }
+
+  @Override
+  public void rateLimiterCreated(String realm, String scope, DoubleSupplier permitsPerSecond) {
+    Gauge.builder(RATE_LIMITER_RATE_METRIC, permitsPerSecond, DoubleSupplier::getAsDouble)
+        .tags("realm", realm, "scope", scope)
+        .strongReference(true)
+        .register(meterRegistry);
+  }
+
+  @Override
+  public void rateLimiterWaited(String realm, String operation, Duration waitTime,
+      boolean acquired) {
+    Timer.builder(RATE_LIMITER_WAIT_METRIC)
+        .tags("realm", realm, "operation", operation, "outcome", acquired ? "acquired" : "rejected")
+        .register(meterRegistry)
+        .record(waitTime);
+  }
+
+  @Override
+  public void userReplicaLoaded(String realm, Instant watermark, int users) {
+    replicaWatermarks.computeIfAbsent(realm,
+        key -> meterRegistry.gauge(REPLICA_WATERMARK_METRIC, Tags.of("realm", realm),
+            new AtomicLong())).set(watermark.getEpochSecond());
+    replicaUsers.computeIfAbsent(realm,
+        key -> meterRegistry.gauge(REPLICA_USERS_METRIC, Tags.of("realm", realm),
+            new AtomicInteger())).set(users);
+  }
+
+  private Timer timer(String realm, String operation, String outcome) {
+    return Timer.builder(REQUESTS_METRIC)
+        .tags("realm", realm, "operation", operation, "outcome", outcome)
+        .register(meterRegistry);
+  }
+}
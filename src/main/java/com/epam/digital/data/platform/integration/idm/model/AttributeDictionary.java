@@ -0,0 +1,77 @@
+/*
+ * Copyright 2023 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.idm.model;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Thread-safe dictionary of user attribute keys and values shared by {@link CompactAttributeMap
+ * compact attribute maps}. Equal keys and values are replaced with the single instance kept by
+ * the dictionary, so the reference to the instance serves as dictionary code. Values of every key
+ * are kept until the key has {@code maxValuesPerKey} distinct values, further values of the key
+ * (e.g. unique tax codes) are stored as is.
+ */
+public class AttributeDictionary {
+
+  private final int maxValuesPerKey;
+  private final Map<String, String> keys = new ConcurrentHashMap<>();
+  private final Map<String, Map<String, String>> valuesByKey = new ConcurrentHashMap<>();
+
+  public AttributeDictionary(int maxValuesPerKey) {
+    this.maxValuesPerKey = maxValuesPerKey;
+  }
+
+  public AttributeDictionary(IdmClientProperties.CompactAttributes properties) {
+    this(properties.getMaxValuesPerKey());
+  }
+
+  /**
+   * @return the dictionary instance equal to the attribute key
+   */
+  public String key(String key) {
+    return keys.computeIfAbsent(key, k -> k);
+  }
+
+  /**
+   * @return the dictionary instance equal to the value of the attribute, the value itself if the
+   * attribute has too many distinct values
+   */
+  public String value(String key, String value) {
+    if (value == null) {
+      return null;
+    }
+    var values = valuesByKey.computeIfAbsent(key, k -> new ConcurrentHashMap<>());
+    var encoded = values.get(value);
+    if (encoded != null) {
+      return encoded;
+    }
+    if (values.size() >= maxValuesPerKey) {
+      return value;
+    }
+    encoded = values.putIfAbsent(value, value);
+    return encoded == null ? value : encoded;
+  }
+
+  /**
+   * @return number of distinct keys
+   */
+  public int size() {
+    return keys.size();
+  }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2023 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.integration.idm.model;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.stream.Collectors;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Report of bulk operation with results per user in the order of the request.
+ */
+@Data
+@Builder
+public class BulkOperationReport implements Serializable {
+
+  private List<BulkOperationResult> results;
+
+  public boolean isSucceeded() {
+    return results.stream().allMatch(BulkOperationResult::isSucceeded);
+  }
+
+  public List<BulkOperationResult> getFailed() {
+    return results.stream().filter(result -> !result.isSucceeded())
+        .collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2023 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.idm.model;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Read-only map of user attributes stored in flat arrays instead of per-user hash map and array
+ * lists. Keys are sorted and looked up with binary search, single values are stored as strings and
+ * multiple values as string arrays. Keys and values are shared through {@link
+ * AttributeDictionary}. Lists returned by the map are unmodifiable views of the stored values.
+ */
+public final class CompactAttributeMap extends AbstractMap<String, List<String>> implements
+    Serializable {
+
+  private static final String[] NO_VALUES = new String[0];
+
+  private final String[] keys;
+  private final Object[] values;
+
+  private CompactAttributeMap(String[] keys, Object[] values) {
+    this.keys = keys;
+    this.values = values;
+  }
+
+  /**
+   * @param attributes user attributes, could be {@code null}
+   * @param dictionary dictionary of attribute keys and values
+   * @return compact copy of the attributes or {@code null} if attributes are {@code null}
+   */
+  public static CompactAttributeMap of(Map<String, List<String>> attributes,
+      AttributeDictionary dictionary) {
+    if (attributes == null) {
+      return null;
+    }
+    if (attributes instanceof CompactAttributeMap) {
+      return (CompactAttributeMap) attributes;
+    }
+    var keys = new String[attributes.size()];
+    var index = 0;
+    for (var key : attributes.keySet()) {
+      keys[index++] = dictionary.key(key);
+    }
+    Arrays.sort(keys);
+    var values = new Object[keys.length];
+    for (var i = 0; i < keys.length; i++) {
+      values[i] = encode(keys[i], attributes.get(keys[i]), dictionary);
+    }
+    return new CompactAttributeMap(keys, values);
+  }
+
+  @Override
+  public int size() {
+    return keys.length;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return indexOf(key) >= 0;
+  }
+
+  @Override
+  public List<String> get(Object key) {
+    var index = indexOf(key);
+    return index < 0 ? null : decode(values[index]);
+  }
+
+  @Override
+  public Set<Entry<String, List<String>>> entrySet() {
+    return new AbstractSet<>() {
+      @Override
+      public Iterator<Entry<String, List<String>>> iterator() {
+        return new Iterator<>() {
+          private int index;
+
+          @Override
+          public boolean hasNext() {
+            return index < keys.length;
+          }
+
+          @Override
+          public Entry<String, List<String>> next() {
+            if (!hasNext()) {
+              throw new NoSuchElementException();
+            }
+            var entry = new SimpleImmutableEntry<>(keys[index], decode(values[index]));
+            index++;
+            return entry;
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return keys.length;
+      }
+    };
+  }
+
+  private int indexOf(Object key) {
+    return key instanceof String ? Arrays.binarySearch(keys, key) : -1;
+  }
+
+  private static Object encode(String key, List<String> values, AttributeDictionary dictionary) {
+    if (values == null) {
+      return null;
+    }
+    if (values.size() == 1 && values.get(0) != null) {
+      return dictionary.value(key, values.get(0));
+    }
+    if (values.isEmpty()) {
+      return NO_VALUES;
+    }
+    var encoded = new String[values.size()];
+    for (var i = 0; i < encoded.length; i++) {
+      encoded[i] = dictionary.value(key, values.get(i));
+    }
+    return encoded;
+  }
+
+  private static List<String> decode(Object value) {
+    if (value == null) {
+      return null;
+    }
+    if (value instanceof String) {
+      return Collections.singletonList((String) value);
+    }
+    return Collections.unmodifiableList(Arrays.asList((String[]) value));
+  }
+}
@@ -0,0 +1,273 @@
+/*
+ * Copyright 2023 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.integration.idm.model;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import lombok.Data;
+
+/**
+ * Tuning properties of the idm clients created by
+ * {@link com.epam.digital.data.platform.integration.idm.factory.IdmServiceFactory}.
+ */
+@Data
+public class IdmClientProperties {
+
+  private ConnectionPool connectionPool = new ConnectionPool();
+  private Registry registry = new Registry();
+  private UserIdCache userIdCache = new UserIdCache();
+  private RoleCatalog roleCatalog = new RoleCatalog();
+  private PublicKeyCache publicKeyCache = new PublicKeyCache();
+  private Async async = new Async();
+  private RoleMembers roleMembers = new RoleMembers();
+  private Bulk bulk = new Bulk();
+  private TokenRefresh tokenRefresh = new TokenRefresh();
+  private Coalescing coalescing = new Coalescing();
+  private CircuitBreaker circuitBreaker = new CircuitBreaker();
+  private Retry retry = new Retry();
+  private RateLimiter rateLimiter = new RateLimiter();
+  private Replica replica = new Replica();
+  private AdminEventsSync adminEventsSync = new AdminEventsSync();
+  private CompactAttributes compactAttributes = new CompactAttributes();
+
+  /**
+   * Http connection pool shared by all keycloak admin clients of the factory.
+   */
+  @Data
+  public static class ConnectionPool {
+
+    private int maxTotal = 200;
+    private int maxPerRoute = 50;
+    private Duration connectTimeout = Duration.ofSeconds(10);
+    private Duration socketTimeout = Duration.ofSeconds(30);
+    private Duration connectionRequestTimeout = Duration.ofSeconds(10);
+    /**
+     * Keep-alive used when keycloak response doesn't specify one.
+     */
+    private Duration keepAlive = Duration.ofMinutes(1);
+    private Duration maxIdleTime = Duration.ofSeconds(30);
+    private Duration validateAfterInactivity = Duration.ofSeconds(2);
+  }
+
+  /**
+   * Registry of idm services returned by
+   * {@link com.epam.digital.data.platform.integration.idm.factory.IdmServiceFactory#getIdmService(String,
+   * String, String)}.
+   */
+  @Data
+  public static class Registry {
+
+    private long maxSize = 100;
+    /**
+     * Keycloak client that wasn't used for this time is closed.
+     */
+    private Duration idleTimeout = Duration.ofMinutes(30);
+    private Duration cleanUpInterval = Duration.ofMinutes(1);
+  }
+
+  /**
+   * Cache of keycloak user ids by username used by role and attribute operations.
+   */
+  @Data
+  public static class UserIdCache {
+
+    private boolean enabled = false;
+    private long maxSize = 10_000;
+    private Duration timeToLive = Duration.ofMinutes(10);
+  }
+
+  /**
+   * In-memory catalog of realm roles kept by every keycloak admin client.
+   */
+  @Data
+  public static class RoleCatalog {
+
+    private boolean enabled = false;
+    private Duration refreshInterval = Duration.ofMinutes(5);
+  }
+
+  /**
+   * Cache of realm public keys used by public idm service.
+   */
+  @Data
+  public static class PublicKeyCache {
+
+    private boolean enabled = true;
+    private Duration timeToLive = Duration.ofMinutes(5);
+    private Duration minForcedRefreshInterval = Duration.ofSeconds(10);
+  }
+
+  /**
+   * Bounded executors of asynchronous idm operations shared by services created by the factory.
+   * <p>
+   * Operations of async idm services, bulk user creation lanes, user replica loads and admin events
+   * polls run on the operation executor. It runs up to {@code corePoolSize} operations, queues up
+   * to {@code queueCapacity} further ones and starts threads above core size only when the queue
+   * is full, operations beyond that are rejected (async operations complete exceptionally). Core
+   * pool size is the expected concurrency of async operations.
+   * <p>
+   * Pages requested concurrently within an operation (role members pages, bulk role changes,
+   * prefetched search pages) run on a separate page executor without a queue: up to
+   * {@code pageMaxPoolSize} pages run on its threads, further pages are run by the requesting
+   * thread itself. So operations never wait for pages queued behind other operations.
+   */
+  @Data
+  public static class Async {
+
+    private int corePoolSize = 8;
+    private int maxPoolSize = 32;
+    private int queueCapacity = 500;
+    private int pageMaxPoolSize = 32;
+    private Duration keepAlive = Duration.ofMinutes(1);
+    private int maxPrefetchedPages = 2;
+  }
+
+  /**
+   * Walk-through of all role members by offset pages.
+   */
+  @Data
+  public static class RoleMembers {
+
+    private int pageSize = 100;
+    private int parallelism = 4;
+  }
+
+  /**
+   * Bulk operations of idm services.
+   */
+  @Data
+  public static class Bulk {
+
+    private int parallelism = 8;
+  }
+
+  /**
+   * Background refresh of service account access token. Refresh before expiry should be greater
+   * than min token validity of keycloak token manager (30s), otherwise request threads could
+   * still fetch the token on their own.
+   */
+  @Data
+  public static class TokenRefresh {
+
+    private boolean enabled = false;
+    private Duration refreshBeforeExpiry = Duration.ofSeconds(45);
+    private Duration retryInterval = Duration.ofSeconds(5);
+  }
+
+  /**
+   * Coalescing of identical concurrent read requests of idm services.
+   */
+  @Data
+  public static class Coalescing {
+
+    private boolean enabled = false;
+  }
+
+  /**
+   * Circuit breaker of keycloak requests per realm. Failure rate threshold is a percentage of bad
+   * (failed or slow) calls in the sliding window.
+   */
+  @Data
+  public static class CircuitBreaker {
+
+    private boolean enabled = false;
+    private int slidingWindowSize = 20;
+    private int minimumCalls = 10;
+    private int failureRateThreshold = 50;
+    private Duration slowCallDuration = Duration.ofSeconds(5);
+    private Duration waitInOpenState = Duration.ofSeconds(30);
+    private int permittedCallsInHalfOpenState = 3;
+  }
+
+  /**
+   * Retry of idempotent keycloak read requests. Every request adds budget ratio of a retry to the
+   * realm retry budget limited by budget capacity, every retry takes one.
+   */
+  @Data
+  public static class Retry {
+
+    private boolean enabled = false;
+    private int maxAttempts = 3;
+    private Duration initialBackoff = Duration.ofMillis(100);
+    private Duration maxBackoff = Duration.ofSeconds(2);
+    private double backoffMultiplier = 2;
+    private double budgetRatio = 0.1;
+    private int budgetCapacity = 10;
+  }
+
+  /**
+   * Client-side rate limit of keycloak requests per realm, optionally with separate limits of
+   * operations keyed by operation name (e.g. {@code saveUserAttribute}). Zero acquire timeout makes
+   * limited requests fail immediately.
+   */
+  @Data
+  public static class RateLimiter {
+
+    private boolean enabled = false;
+    private double permitsPerSecond = 100;
+    private Duration acquireTimeout = Duration.ofSeconds(1);
+    private Map<String, OperationRateLimit> operations = new HashMap<>();
+  }
+
+  @Data
+  public static class OperationRateLimit {
+
+    private double permitsPerSecond;
+  }
+
+  /**
+   * In-memory replica of realm users answering unpaginated attribute searches.
+   */
+  @Data
+  public static class Replica {
+
+    private boolean enabled = false;
+    private Duration refreshInterval = Duration.ofMinutes(5);
+    private Duration maxStaleness = Duration.ofMinutes(15);
+    private int pageSize = 500;
+  }
+
+  /**
+   * Sync of user replica, role catalog and user id cache with keycloak admin events. Admin events
+   * have to be enabled in the realm and service account needs {@code view-events} role. Cursors
+   * are kept in files of cursor directory if it's set, otherwise in memory.
+   */
+  @Data
+  public static class AdminEventsSync {
+
+    private boolean enabled = false;
+    private Duration pollInterval = Duration.ofSeconds(30);
+    private int pageSize = 100;
+    private int maxEvents = 1000;
+    private Duration maxGap = Duration.ofHours(1);
+    private Duration lag = Duration.ofSeconds(10);
+    private String cursorDirectory;
+  }
+
+  /**
+   * Compact read-only storage of {@link IdmUser} attributes with keys and values shared through
+   * the dictionary of the factory. Values of every key are shared until the key has max values
+   * per key distinct values.
+   */
+  @Data
+  public static class CompactAttributes {
+
+    private boolean enabled = false;
+    private int maxValuesPerKey = 1024;
+  }
+}
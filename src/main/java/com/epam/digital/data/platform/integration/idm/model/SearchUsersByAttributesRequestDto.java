@@ -18,14 +18,17 @@ package com.epam.digital.data.platform.integration.idm.model;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import lombok.Builder;
+import lombok.EqualsAndHashCode;
 import lombok.Getter;
 
 /**
  * Representation of search users by attributes request body.
  */
-@Builder
+@Builder(toBuilder = true)
 @Getter
+@EqualsAndHashCode
 public class SearchUsersByAttributesRequestDto {
 
   private Map<String, List<String>> attributesEquals;
@@ -33,8 +36,20 @@ public class SearchUsersByAttributesRequestDto {
   private Map<String, List<String>> attributesThatAreStartFor;
   private Pagination pagination;
 
+  /**
+   * @param continueToken continue token returned with the previous page
+   * @return copy of this request that selects the page with given continue token
+   */
+  public SearchUsersByAttributesRequestDto withContinueToken(Integer continueToken) {
+    var limit = Objects.isNull(pagination) ? null : pagination.getLimit();
+    return toBuilder()
+        .pagination(Pagination.builder().limit(limit).continueToken(continueToken).build())
+        .build();
+  }
+
   @Builder
   @Getter
+  @EqualsAndHashCode
   public static class Pagination {
 
     private Integer limit;
@@ -19,6 +19,7 @@ package com.epam.digital.data.platform.integration.idm.model;
 import java.util.List;
 import java.util.Map;
 import lombok.Builder;
+import lombok.EqualsAndHashCode;
 import lombok.Getter;
 
 /**
@@ -26,6 +27,7 @@ import lombok.Getter;
  */
 @Builder
 @Getter
+@EqualsAndHashCode
 public class SearchUsersByRoleAndAttributesRequestDto {
 
   private Boolean enabled;
@@ -38,6 +40,7 @@ public class SearchUsersByRoleAndAttributesRequestDto {
 
   @Builder
   @Getter
+  @EqualsAndHashCode
   public static class OffsetPagination {
 
     private Integer limit;
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2023 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.integration.idm.model;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Singular;
+import org.keycloak.representations.idm.RoleRepresentation;
+import org.keycloak.representations.idm.UserRepresentation;
+
+/**
+ * Changes of a user applied at once. Attribute and enabled flag changes are applied with a single
+ * representation update, role changes are applied as a diff with user's current realm roles.
+ */
+@Builder
+@Getter
+public class UserPatch {
+
+  @Singular("putAttribute")
+  private Map<String, List<String>> attributesToPut;
+  @Singular("removeAttribute")
+  private Set<String> attributesToRemove;
+  private Boolean enabled;
+  /**
+   * Roles to add, a role that is both added and removed is added.
+   */
+  @Singular("addRole")
+  private List<RoleRepresentation> rolesToAdd;
+  @Singular("removeRole")
+  private List<RoleRepresentation> rolesToRemove;
+
+  public boolean hasRepresentationChanges() {
+    return !attributesToPut.isEmpty() || !attributesToRemove.isEmpty() || Objects.nonNull(enabled);
+  }
+
+  public boolean hasRoleChanges() {
+    return !rolesToAdd.isEmpty() || !rolesToRemove.isEmpty();
+  }
+
+  /**
+   * Apply attribute and enabled flag changes to given user representation.
+   *
+   * @param user representation to change
+   */
+  public void applyTo(UserRepresentation user) {
+    if (Objects.isNull(user.getAttributes())) {
+      user.setAttributes(new HashMap<>());
+    }
+    attributesToRemove.forEach(user.getAttributes()::remove);
+    user.getAttributes().putAll(attributesToPut);
+    if (Objects.nonNull(enabled)) {
+      user.setEnabled(enabled);
+    }
+  }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2023 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.idm.replica;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Prefix tree of values of a user attribute. Every node keeps ids of users having the value that
+ * ends at the node.
+ */
+final class AttributeTrie {
+
+  private final Node root = new Node();
+
+  void add(String value, String userId) {
+    var node = root;
+    for (var i = 0; i < value.length(); i++) {
+      node = node.children.computeIfAbsent(value.charAt(i), key -> new Node());
+    }
+    node.userIds.add(userId);
+  }
+
+  void remove(String value, String userId) {
+    var node = find(value);
+    if (Objects.nonNull(node)) {
+      node.userIds.remove(userId);
+    }
+  }
+
+  /**
+   * @return ids of users having a value that starts with given prefix
+   */
+  Set<String> findStartingWith(String prefix) {
+    var result = new HashSet<String>();
+    var start = find(prefix);
+    if (Objects.isNull(start)) {
+      return result;
+    }
+    var nodes = new ArrayDeque<Node>();
+    nodes.push(start);
+    while (!nodes.isEmpty()) {
+      var node = nodes.pop();
+      result.addAll(node.userIds);
+      node.children.values().forEach(nodes::push);
+    }
+    return result;
+  }
+
+  /**
+   * @return ids of users having a value that is a prefix of given value
+   */
+  Set<String> findStartFor(String value) {
+    var result = new HashSet<>(root.userIds);
+    var node = root;
+    for (var i = 0; i < value.length() && Objects.nonNull(node); i++) {
+      node = node.children.get(value.charAt(i));
+      if (Objects.nonNull(node)) {
+        result.addAll(node.userIds);
+      }
+    }
+    return result;
+  }
+
+  private Node find(String value) {
+    var node = root;
+    for (var i = 0; i < value.length() && Objects.nonNull(node); i++) {
+      node = node.children.get(value.charAt(i));
+    }
+    return node;
+  }
+
+  private static class Node {
+
+    private final Map<Character, Node> children = new HashMap<>(4);
+    private final Set<String> userIds = new HashSet<>(2);
+  }
+}
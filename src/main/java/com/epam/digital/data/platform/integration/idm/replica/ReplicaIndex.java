@@ -0,0 +1,155 @@
+/*
+ * Copyright 2023 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.idm.replica;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+import org.keycloak.representations.idm.UserRepresentation;
+
+/**
+ * Indexes of replicated users: hash index of attribute values for equality matching, prefix tree
+ * of attribute values for prefix matching and index of realm role members. Not thread safe.
+ */
+final class ReplicaIndex {
+
+  private final Map<String, UserRepresentation> users = new LinkedHashMap<>();
+  private final Map<String, Set<String>> rolesByUserId = new HashMap<>();
+  private final Map<String, Set<String>> userIdsByRole = new HashMap<>();
+  private final Map<String, Map<String, Set<String>>> userIdsByAttributeValue = new HashMap<>();
+  private final Map<String, AttributeTrie> attributeTries = new HashMap<>();
+
+  int size() {
+    return users.size();
+  }
+
+  /**
+   * Add or replace the user.
+   *
+   * @param user  user representation with attributes
+   * @param roles names of realm roles of the user
+   */
+  void put(UserRepresentation user, Set<String> roles) {
+    var userId = user.getId();
+    remove(userId);
+    users.put(userId, user);
+    rolesByUserId.put(userId, Set.copyOf(roles));
+    roles.forEach(role -> userIdsByRole.computeIfAbsent(role, key -> new HashSet<>()).add(userId));
+    forEachAttributeValue(user, (attribute, value) -> {
+      userIdsByAttributeValue.computeIfAbsent(attribute, key -> new HashMap<>())
+          .computeIfAbsent(value, key -> new HashSet<>()).add(userId);
+      attributeTries.computeIfAbsent(attribute, key -> new AttributeTrie()).add(value, userId);
+    });
+  }
+
+  void remove(String userId) {
+    var user = users.remove(userId);
+    if (Objects.isNull(user)) {
+      return;
+    }
+    rolesByUserId.remove(userId).forEach(role -> userIdsByRole.get(role).remove(userId));
+    forEachAttributeValue(user, (attribute, value) -> {
+      var userIds = userIdsByAttributeValue.get(attribute).get(value);
+      userIds.remove(userId);
+      if (userIds.isEmpty()) {
+        userIdsByAttributeValue.get(attribute).remove(value);
+      }
+      attributeTries.get(attribute).remove(value, userId);
+    });
+  }
+
+  Set<String> getRoles(String userId) {
+    return rolesByUserId.getOrDefault(userId, Set.of());
+  }
+
+  /**
+   * Find users matching all given criteria, {@code null} criteria are ignored. A user matches an
+   * attribute criterion if any value of the attribute matches any of criterion values.
+   *
+   * @return matched users in the order they have been put
+   */
+  List<UserRepresentation> search(Map<String, List<String>> attributesEquals,
+      Map<String, List<String>> attributesStartsWith,
+      Map<String, List<String>> attributesThatAreStartFor, String roleName, String username,
+      Boolean enabled) {
+    Set<String> candidates = null;
+    candidates = intersect(candidates, attributesEquals, (attribute, value) ->
+        userIdsByAttributeValue.getOrDefault(attribute, Map.of()).getOrDefault(value, Set.of()));
+    candidates = intersect(candidates, attributesStartsWith, (attribute, value) ->
+        trie(attribute).findStartingWith(value));
+    candidates = intersect(candidates, attributesThatAreStartFor, (attribute, value) ->
+        trie(attribute).findStartFor(value));
+    if (Objects.nonNull(roleName)) {
+      candidates = intersect(candidates, userIdsByRole.getOrDefault(roleName, Set.of()));
+    }
+    var matched = candidates;
+    return users.values().stream()
+        .filter(user -> Objects.isNull(matched) || matched.contains(user.getId()))
+        .filter(user -> Objects.isNull(username) || username.equalsIgnoreCase(user.getUsername()))
+        .filter(user -> Objects.isNull(enabled) || enabled.equals(user.isEnabled()))
+        .collect(Collectors.toList());
+  }
+
+  private AttributeTrie trie(String attribute) {
+    return attributeTries.getOrDefault(attribute, new AttributeTrie());
+  }
+
+  private static Set<String> intersect(Set<String> candidates,
+      Map<String, List<String>> criteria,
+      BiFunction<String, String, Set<String>> matcher) {
+    if (Objects.isNull(criteria)) {
+      return candidates;
+    }
+    var result = candidates;
+    for (var criterion : criteria.entrySet()) {
+      var matched = new HashSet<String>();
+      criterion.getValue()
+          .forEach(value -> matched.addAll(matcher.apply(criterion.getKey(), value)));
+      result = intersect(result, matched);
+    }
+    return result;
+  }
+
+  private static Set<String> intersect(Set<String> candidates, Set<String> matched) {
+    if (Objects.isNull(candidates)) {
+      return new HashSet<>(matched);
+    }
+    candidates.retainAll(matched);
+    return candidates;
+  }
+
+  private static void forEachAttributeValue(UserRepresentation user,
+      BiConsumer<String, String> action) {
+    if (Objects.isNull(user.getAttributes())) {
+      return;
+    }
+    user.getAttributes().forEach((attribute, values) -> {
+      if (Objects.nonNull(values)) {
+        values.stream().filter(Objects::nonNull).distinct()
+            .forEach(value -> action.accept(attribute, value));
+      }
+    });
+  }
+}
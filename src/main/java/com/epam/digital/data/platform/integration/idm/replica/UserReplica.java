@@ -0,0 +1,345 @@
+/*
+ * Copyright 2023 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.idm.replica;
+
+import com.epam.digital.data.platform.integration.idm.metrics.KeycloakClientMetrics;
+import com.epam.digital.data.platform.integration.idm.model.AttributeDictionary;
+import com.epam.digital.data.platform.integration.idm.model.CompactAttributeMap;
+import com.epam.digital.data.platform.integration.idm.model.IdmClientProperties;
+import com.epam.digital.data.platform.integration.idm.model.SearchUsersByAttributesRequestDto;
+import com.epam.digital.data.platform.integration.idm.model.SearchUsersByAttributesResponseDto;
+import com.epam.digital.data.platform.integration.idm.model.SearchUsersByRoleAndAttributesRequestDto;
+import com.epam.digital.data.platform.integration.idm.model.SearchUsersByRoleAndAttributesResponseDto;
+import java.io.Closeable;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.keycloak.representations.idm.UserRepresentation;
+
+/**
+ * In-memory replica of realm users that answers attribute searches without calling keycloak. A
+ * single replica is shared by all clients of the realm.
+ * <p>
+ * Users with their attributes and realm role members are bulk loaded in background with configured
+ * interval and indexed by {@link ReplicaIndex}. Loads are performed by one of the registered
+ * {@link UserReplicaLoader loaders}, the replica isn't loaded while there are none. Freshness
+ * watermark is the time the last load has started, the replica reflects all changes made before
+ * it. Search isn't answered (empty result is returned, so the caller falls back to keycloak) if the
+ * replica is older than max staleness or hasn't been loaded yet, if the request is paginated or if
+ * a criterion has no values.
+ * <p>
+ * If attribute dictionary is set, attributes of stored users are replaced with {@link
+ * CompactAttributeMap compact read-only maps}. Returned user representations are shared with the
+ * replica, so they must not be modified.
+ */
+@Slf4j
+public class UserReplica implements Closeable {
+
+  private final String realm;
+  private final List<UserReplicaLoader> loaders = new CopyOnWriteArrayList<>();
+  private final Duration maxStaleness;
+  private final int pageSize;
+  private final Executor executor;
+  private final KeycloakClientMetrics metrics;
+  private final Clock clock;
+  private final AttributeDictionary attributeDictionary;
+  private final ScheduledFuture<?> refreshTask;
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final AtomicBoolean loading = new AtomicBoolean();
+  private ReplicaIndex index = new ReplicaIndex();
+  private volatile Instant watermark;
+
+  /**
+   * @param scheduler scheduler of background loads
+   * @param executor  executor that runs loads, loads run on the scheduler if it's {@code null}
+   */
+  public UserReplica(String realm, IdmClientProperties.Replica properties,
+      ScheduledExecutorService scheduler, Executor executor, KeycloakClientMetrics metrics) {
+    this(realm, properties, scheduler, executor, metrics, null);
+  }
+
+  /**
+   * @param scheduler           scheduler of background loads
+   * @param executor            executor that runs loads, loads run on the scheduler if it's
+   *                            {@code null}
+   * @param attributeDictionary dictionary that stored user attributes are compacted with, they are
+   *                            stored as loaded if it's {@code null}
+   */
+  public UserReplica(String realm, IdmClientProperties.Replica properties,
+      ScheduledExecutorService scheduler, Executor executor, KeycloakClientMetrics metrics,
+      AttributeDictionary attributeDictionary) {
+    this(realm, properties, scheduler, executor, metrics, attributeDictionary, Clock.systemUTC());
+  }
+
+  UserReplica(String realm, IdmClientProperties.Replica properties,
+      ScheduledExecutorService scheduler, Executor executor, KeycloakClientMetrics metrics,
+      AttributeDictionary attributeDictionary, Clock clock) {
+    this.realm = realm;
+    this.maxStaleness = properties.getMaxStaleness();
+    this.pageSize = properties.getPageSize();
+    this.executor = Objects.requireNonNullElse(executor, Runnable::run);
+    this.metrics = metrics;
+    this.clock = clock;
+    this.attributeDictionary = attributeDictionary;
+    this.refreshTask = scheduler.scheduleWithFixedDelay(this::scheduleReload, 0,
+        properties.getRefreshInterval().toMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Register a loader of the replica. The replica is loaded right away if it hasn't been loaded
+   * yet.
+   *
+   * @param loader loader of realm users and role members
+   */
+  public void addLoader(UserReplicaLoader loader) {
+    loaders.add(loader);
+    if (Objects.isNull(watermark)) {
+      scheduleReload();
+    }
+  }
+
+  /**
+   * Unregister a loader, e.g. once its keycloak client is closed.
+   *
+   * @param loader registered loader
+   */
+  public void removeLoader(UserReplicaLoader loader) {
+    loaders.remove(loader);
+  }
+
+  /**
+   * Search users by attributes if the replica is able to answer the request.
+   *
+   * @param request search request
+   * @return all matched users on a single page or empty if keycloak has to be called
+   */
+  public Optional<SearchUsersByAttributesResponseDto> searchUsers(
+      SearchUsersByAttributesRequestDto request) {
+    var pagination = request.getPagination();
+    var paginated = Objects.nonNull(pagination) && (Objects.nonNull(pagination.getLimit())
+        || Objects.nonNull(pagination.getContinueToken()));
+    if (paginated || !isSupported(request.getAttributesEquals(), request.getAttributesStartsWith(),
+        request.getAttributesThatAreStartFor())) {
+      return Optional.empty();
+    }
+    return search(replicaIndex -> replicaIndex.search(request.getAttributesEquals(),
+        request.getAttributesStartsWith(), request.getAttributesThatAreStartFor(), null, null,
+        null))
+        .map(users -> {
+          var response = new SearchUsersByAttributesResponseDto();
+          response.setUsers(users);
+          var lastPage = new SearchUsersByAttributesResponseDto.Pagination();
+          lastPage.setContinueToken(-1);
+          response.setPagination(lastPage);
+          return response;
+        });
+  }
+
+  /**
+   * Search users by role and attributes if the replica is able to answer the request.
+   *
+   * @param request search request
+   * @return all matched users or empty if keycloak has to be called
+   */
+  public Optional<SearchUsersByRoleAndAttributesResponseDto> searchUsersByRoleAndAttributes(
+      SearchUsersByRoleAndAttributesRequestDto request) {
+    var pagination = request.getPagination();
+    var paginated = Objects.nonNull(pagination)
+        && (Objects.nonNull(pagination.getLimit()) || Objects.nonNull(pagination.getOffset()));
+    if (paginated || !isSupported(request.getAttributesEquals(), request.getAttributesStartsWith(),
+        request.getAttributesThatAreStartFor())) {
+      return Optional.empty();
+    }
+    return search(replicaIndex -> replicaIndex.search(request.getAttributesEquals(),
+        request.getAttributesStartsWith(), request.getAttributesThatAreStartFor(),
+        request.getRoleName(), request.getUsername(), request.getEnabled()))
+        .map(users -> {
+          var response = new SearchUsersByRoleAndAttributesResponseDto();
+          response.setUsers(users);
+          return response;
+        });
+  }
+
+  /**
+   * @return page size of users bulk load
+   */
+  public int getPageSize() {
+    return pageSize;
+  }
+
+  /**
+   * @return time the last successful load has started or empty if the replica isn't loaded yet
+   */
+  public Optional<Instant> getWatermark() {
+    return Optional.ofNullable(watermark);
+  }
+
+  /**
+   * Load all users replacing the current content of the replica.
+   */
+  public void reload() {
+    var loader = loaders.stream().findFirst();
+    if (loader.isEmpty()) {
+      log.debug("User replica of realm {} has no loaders, load is skipped", realm);
+      return;
+    }
+    var startedAt = clock.instant();
+    var rolesByUserId = new HashMap<String, Set<String>>();
+    loader.get().loadRoleMembers().forEach((role, userIds) -> userIds.forEach(
+        userId -> rolesByUserId.computeIfAbsent(userId, key -> new HashSet<>()).add(role)));
+    var loaded = new ReplicaIndex();
+    loader.get().loadUsers().forEach(user -> loaded.put(compactAttributes(user),
+        rolesByUserId.getOrDefault(user.getId(), Set.of())));
+    lock.writeLock().lock();
+    try {
+      index = loaded;
+      watermark = startedAt;
+    } finally {
+      lock.writeLock().unlock();
+    }
+    metrics.userReplicaLoaded(realm, startedAt, loaded.size());
+    log.info("User replica of realm {} loaded {} users, watermark {}", realm, loaded.size(),
+        startedAt);
+  }
+
+  /**
+   * Add or replace the user changed in keycloak.
+   *
+   * @param user  current user representation with attributes
+   * @param roles names of realm roles of the user
+   */
+  public void putUser(UserRepresentation user, Collection<String> roles) {
+    lock.writeLock().lock();
+    try {
+      index.put(compactAttributes(user), Set.copyOf(roles));
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Remove the user deleted in keycloak.
+   *
+   * @param userId keycloak user id
+   */
+  public void removeUser(String userId) {
+    lock.writeLock().lock();
+    try {
+      index.remove(userId);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Move freshness watermark forward once all changes made before given time have been applied
+   * to the loaded replica.
+   *
+   * @param appliedUntil time all changes made before have been applied
+   */
+  public void advanceWatermark(Instant appliedUntil) {
+    lock.writeLock().lock();
+    try {
+      if (Objects.nonNull(watermark) && appliedUntil.isAfter(watermark)) {
+        watermark = appliedUntil;
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public void close() {
+    refreshTask.cancel(false);
+  }
+
+  private Optional<List<UserRepresentation>> search(
+      Function<ReplicaIndex, List<UserRepresentation>> query) {
+    var currentWatermark = watermark;
+    if (Objects.isNull(currentWatermark)
+        || Duration.between(currentWatermark, clock.instant()).compareTo(maxStaleness) > 0) {
+      log.debug("User replica of realm {} is stale, watermark {}", realm, currentWatermark);
+      return Optional.empty();
+    }
+    lock.readLock().lock();
+    try {
+      return Optional.of(query.apply(index));
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private UserRepresentation compactAttributes(UserRepresentation user) {
+    if (Objects.nonNull(attributeDictionary)) {
+      user.setAttributes(CompactAttributeMap.of(user.getAttributes(), attributeDictionary));
+    }
+    return user;
+  }
+
+  private void scheduleReload() {
+    if (!loading.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      executor.execute(() -> {
+        try {
+          reload();
+        } catch (RuntimeException exception) {
+          log.warn("Couldn't load user replica of realm {}, watermark {} is kept", realm,
+              watermark, exception);
+        } finally {
+          loading.set(false);
+        }
+      });
+    } catch (RejectedExecutionException exception) {
+      loading.set(false);
+      log.warn("User replica load of realm {} is rejected", realm, exception);
+    }
+  }
+
+  @SafeVarargs
+  private static boolean isSupported(Map<String, List<String>>... criteria) {
+    for (var criterion : criteria) {
+      if (Objects.nonNull(criterion) && criterion.values().stream()
+          .anyMatch(values -> Objects.isNull(values) || values.isEmpty())) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2023 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.idm.replica;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import org.keycloak.representations.idm.UserRepresentation;
+
+/**
+ * Source of bulk loads of {@link UserReplica}, e.g. a keycloak admin client of the realm.
+ */
+public interface UserReplicaLoader {
+
+  /**
+   * @return all realm users with attributes
+   */
+  List<UserRepresentation> loadUsers();
+
+  /**
+   * @return ids of realm role members by role name
+   */
+  Map<String, ? extends Collection<String>> loadRoleMembers();
+}
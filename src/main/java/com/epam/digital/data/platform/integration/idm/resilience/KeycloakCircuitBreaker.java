@@ -0,0 +1,190 @@
+/*
+ * Copyright 2023 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.idm.resilience;
+
+import com.epam.digital.data.platform.integration.idm.exception.KeycloakCircuitBreakerOpenException;
+import com.epam.digital.data.platform.integration.idm.metrics.KeycloakClientMetrics;
+import com.epam.digital.data.platform.integration.idm.model.IdmClientProperties;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.function.LongSupplier;
+import javax.ws.rs.ProcessingException;
+import javax.ws.rs.WebApplicationException;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Circuit breaker of keycloak requests of a realm.
+ * <p>
+ * Outcomes of the last calls are kept in a sliding window. A call is bad if it has failed with
+ * i/o error or 5xx response or if it took longer than slow call duration, client errors (e.g. 404)
+ * are successful calls for the breaker. Once the rate of bad calls reaches the threshold, the
+ * breaker opens and calls fail immediately with {@link KeycloakCircuitBreakerOpenException}.
+ * After wait duration the breaker becomes half-open and lets a few probe calls through: it's
+ * closed if all of them are good and opened again on the first bad one.
+ */
+@Slf4j
+public class KeycloakCircuitBreaker {
+
+  public enum State {
+    CLOSED, OPEN, HALF_OPEN
+  }
+
+  private final String name;
+  private final String realm;
+  private final IdmClientProperties.CircuitBreaker properties;
+  private final KeycloakClientMetrics metrics;
+  private final LongSupplier nanoTime;
+
+  private final boolean[] window;
+  private int windowPosition;
+  private int recordedCalls;
+  private int badCalls;
+
+  private State state = State.CLOSED;
+  private long openedAt;
+  private int halfOpenStartedCalls;
+  private int halfOpenGoodCalls;
+
+  public KeycloakCircuitBreaker(String serverUrl, String realm,
+      IdmClientProperties.CircuitBreaker properties, KeycloakClientMetrics metrics) {
+    this(serverUrl, realm, properties, metrics, System::nanoTime);
+  }
+
+  KeycloakCircuitBreaker(String serverUrl, String realm,
+      IdmClientProperties.CircuitBreaker properties, KeycloakClientMetrics metrics,
+      LongSupplier nanoTime) {
+    this.name = String.format("%s/%s", serverUrl, realm);
+    this.realm = realm;
+    this.properties = properties;
+    this.metrics = metrics;
+    this.nanoTime = nanoTime;
+    this.window = new boolean[properties.getSlidingWindowSize()];
+  }
+
+  /**
+   * Check that a call is permitted. Call outcome must be reported with
+   * {@link KeycloakCircuitBreaker#onResult(long, Exception)} afterwards, or the permission must be
+   * released with {@link KeycloakCircuitBreaker#releasePermission()} if the outcome is unknown.
+   *
+   * @return start time of the call in nanoseconds
+   * @throws KeycloakCircuitBreakerOpenException if the breaker is open or all half-open probe
+   *                                             calls are in flight
+   */
+  public synchronized long acquirePermission() {
+    var now = nanoTime.getAsLong();
+    if (state == State.OPEN) {
+      if (now - openedAt < properties.getWaitInOpenState().toNanos()) {
+        throw openException();
+      }
+      transitionTo(State.HALF_OPEN);
+    }
+    if (state == State.HALF_OPEN) {
+      if (halfOpenStartedCalls >= properties.getPermittedCallsInHalfOpenState()) {
+        throw openException();
+      }
+      halfOpenStartedCalls++;
+    }
+    return now;
+  }
+
+  /**
+   * Record outcome of a permitted call.
+   *
+   * @param startTime start time returned by {@link KeycloakCircuitBreaker#acquirePermission()}
+   * @param exception exception of the call or {@code null} if it has succeeded
+   */
+  public synchronized void onResult(long startTime, Exception exception) {
+    var duration = Duration.ofNanos(nanoTime.getAsLong() - startTime);
+    var bad = isFailure(exception) || duration.compareTo(properties.getSlowCallDuration()) >= 0;
+    if (state == State.CLOSED) {
+      record(bad);
+      if (recordedCalls >= properties.getMinimumCalls()
+          && badCalls * 100 >= properties.getFailureRateThreshold() * recordedCalls) {
+        transitionTo(State.OPEN);
+      }
+    } else if (state == State.HALF_OPEN) {
+      if (bad) {
+        transitionTo(State.OPEN);
+      } else if (++halfOpenGoodCalls >= properties.getPermittedCallsInHalfOpenState()) {
+        transitionTo(State.CLOSED);
+      }
+    }
+  }
+
+  /**
+   * Release permission of a call without recording its outcome, e.g. if the call hasn't reached
+   * keycloak or has failed with an {@link Error}. A half-open probe slot taken by the call becomes
+   * available for another call.
+   */
+  public synchronized void releasePermission() {
+    if (state == State.HALF_OPEN && halfOpenStartedCalls > 0) {
+      halfOpenStartedCalls--;
+    }
+  }
+
+  public synchronized State getState() {
+    return state;
+  }
+
+  private void record(boolean bad) {
+    if (recordedCalls == window.length) {
+      badCalls -= window[windowPosition] ? 1 : 0;
+    } else {
+      recordedCalls++;
+    }
+    window[windowPosition] = bad;
+    badCalls += bad ? 1 : 0;
+    windowPosition = (windowPosition + 1) % window.length;
+  }
+
+  private void transitionTo(State newState) {
+    log.warn("Circuit breaker of keycloak {} changed state from {} to {}", name, state, newState);
+    metrics.circuitBreakerStateChanged(realm, state, newState);
+    state = newState;
+    if (newState == State.OPEN) {
+      openedAt = nanoTime.getAsLong();
+    }
+    if (newState == State.HALF_OPEN) {
+      halfOpenStartedCalls = 0;
+      halfOpenGoodCalls = 0;
+    }
+    if (newState == State.CLOSED) {
+      windowPosition = 0;
+      recordedCalls = 0;
+      badCalls = 0;
+    }
+  }
+
+  private KeycloakCircuitBreakerOpenException openException() {
+    return new KeycloakCircuitBreakerOpenException(
+        String.format("Circuit breaker of keycloak %s is %s", name, state));
+  }
+
+  private static boolean isFailure(Throwable exception) {
+    for (var cause = exception; Objects.nonNull(cause); cause = cause.getCause()) {
+      if (cause instanceof ProcessingException) {
+        return true;
+      }
+      if (cause instanceof WebApplicationException) {
+        var response = ((WebApplicationException) cause).getResponse();
+        return Objects.nonNull(response) && response.getStatus() >= 500;
+      }
+    }
+    return false;
+  }
+}
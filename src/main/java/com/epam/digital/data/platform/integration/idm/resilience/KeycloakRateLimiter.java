@@ -0,0 +1,156 @@
+/*
+ * Copyright 2023 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.idm.resilience;
+
+import com.epam.digital.data.platform.integration.idm.exception.KeycloakRateLimitExceededException;
+import com.epam.digital.data.platform.integration.idm.metrics.KeycloakClientMetrics;
+import com.epam.digital.data.platform.integration.idm.model.IdmClientProperties;
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.Uninterruptibles;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Token bucket rate limiter of keycloak requests of a realm. Every request takes a permit of the
+ * realm and, if the operation has its own limit (e.g. {@code saveUserAttribute}), a permit of the
+ * operation. Unused permits of up to a second are saved for bursts, a new limiter starts with a
+ * full second of saved permits, so startup bursts pass even if requests fail fast. Permits of the
+ * realm and of the operation are reserved together, so neither of them is spent if the other one
+ * isn't available.
+ * <p>
+ * A request waits for permits up to configured acquire timeout and fails with
+ * {@link KeycloakRateLimitExceededException} if they aren't available in time, zero timeout makes
+ * requests fail fast.
+ */
+@Slf4j
+public class KeycloakRateLimiter {
+
+  static final String REALM_SCOPE = "realm";
+
+  private final String realm;
+  private final long acquireTimeoutNanos;
+  private final KeycloakClientMetrics metrics;
+  private final LongSupplier nanoTime;
+  private final PermitBucket realmBucket;
+  private final Map<String, PermitBucket> operationBuckets;
+
+  public KeycloakRateLimiter(String realm, IdmClientProperties.RateLimiter properties,
+      KeycloakClientMetrics metrics) {
+    this(realm, properties, metrics, System::nanoTime);
+  }
+
+  KeycloakRateLimiter(String realm, IdmClientProperties.RateLimiter properties,
+      KeycloakClientMetrics metrics, LongSupplier nanoTime) {
+    this.realm = realm;
+    this.acquireTimeoutNanos = properties.getAcquireTimeout().toNanos();
+    this.metrics = metrics;
+    this.nanoTime = nanoTime;
+    var now = nanoTime.getAsLong();
+    this.realmBucket = new PermitBucket(properties.getPermitsPerSecond(), now);
+    this.operationBuckets = properties.getOperations().entrySet().stream()
+        .collect(Collectors.toMap(Map.Entry::getKey,
+            entry -> new PermitBucket(entry.getValue().getPermitsPerSecond(), now)));
+    metrics.rateLimiterCreated(realm, REALM_SCOPE, realmBucket::getRate);
+    operationBuckets.forEach((operation, bucket) ->
+        metrics.rateLimiterCreated(realm, operation, bucket::getRate));
+  }
+
+  /**
+   * Acquire permits of the realm and of the operation waiting for them up to acquire timeout.
+   *
+   * @param operation operation name, e.g. {@code saveUserAttribute}
+   * @throws KeycloakRateLimitExceededException if permits couldn't be acquired in time
+   */
+  public void acquirePermission(String operation) {
+    var operationBucket = operationBuckets.get(operation);
+    long waitNanos;
+    synchronized (this) {
+      var now = nanoTime.getAsLong();
+      waitNanos = realmBucket.waitNanos(now);
+      if (Objects.nonNull(operationBucket)) {
+        waitNanos = Math.max(waitNanos, operationBucket.waitNanos(now));
+      }
+      if (waitNanos <= acquireTimeoutNanos) {
+        realmBucket.reserve(now);
+        if (Objects.nonNull(operationBucket)) {
+          operationBucket.reserve(now);
+        }
+      }
+    }
+    if (waitNanos > acquireTimeoutNanos) {
+      metrics.rateLimiterWaited(realm, operation, Duration.ZERO, false);
+      log.warn("Rate limit of {} in realm {} is exceeded", operation, realm);
+      throw new KeycloakRateLimitExceededException(
+          String.format("Rate limit of %s in realm %s is exceeded", operation, realm));
+    }
+    Uninterruptibles.sleepUninterruptibly(waitNanos, TimeUnit.NANOSECONDS);
+    metrics.rateLimiterWaited(realm, operation, Duration.ofNanos(waitNanos), true);
+  }
+
+  /**
+   * Bursty token bucket: a permit is granted at the time of the next free ticket that moves
+   * forward by permit interval with every granted permit not covered by saved permits. The bucket
+   * starts full. Callers synchronize access.
+   */
+  private static class PermitBucket {
+
+    private final double permitsPerSecond;
+    private final double intervalNanos;
+    private final double maxSavedPermits;
+    private double savedPermits;
+    private long nextFreeTicketNanos;
+
+    PermitBucket(double permitsPerSecond, long now) {
+      Preconditions.checkArgument(permitsPerSecond > 0, "permitsPerSecond must be positive");
+      this.permitsPerSecond = permitsPerSecond;
+      this.intervalNanos = TimeUnit.SECONDS.toNanos(1) / permitsPerSecond;
+      this.maxSavedPermits = permitsPerSecond;
+      this.savedPermits = maxSavedPermits;
+      this.nextFreeTicketNanos = now;
+    }
+
+    double getRate() {
+      return permitsPerSecond;
+    }
+
+    long waitNanos(long now) {
+      resync(now);
+      return Math.max(nextFreeTicketNanos - now, 0);
+    }
+
+    void reserve(long now) {
+      resync(now);
+      var fromSaved = Math.min(1, savedPermits);
+      savedPermits -= fromSaved;
+      nextFreeTicketNanos += (long) ((1 - fromSaved) * intervalNanos);
+    }
+
+    private void resync(long now) {
+      if (now > nextFreeTicketNanos) {
+        savedPermits = Math.min(maxSavedPermits,
+            savedPermits + (now - nextFreeTicketNanos) / intervalNanos);
+        nextFreeTicketNanos = now;
+      }
+    }
+  }
+}
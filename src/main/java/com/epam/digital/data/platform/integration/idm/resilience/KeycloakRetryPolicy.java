@@ -0,0 +1,136 @@
+/*
+ * Copyright 2023 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.idm.resilience;
+
+import com.epam.digital.data.platform.integration.idm.exception.KeycloakCircuitBreakerOpenException;
+import com.epam.digital.data.platform.integration.idm.metrics.KeycloakClientMetrics;
+import com.epam.digital.data.platform.integration.idm.model.IdmClientProperties;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import javax.ws.rs.ProcessingException;
+import javax.ws.rs.WebApplicationException;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Retry policy of idempotent keycloak read requests of a realm.
+ * <p>
+ * Only transient failures are retried: i/o errors and 502, 503, 504 responses. Backoff grows
+ * exponentially and is randomized with full jitter, so retries of concurrent callers don't hit
+ * keycloak at the same time. Retries are limited by the budget shared by all requests of the
+ * realm: every request deposits the configured ratio of a retry and every retry withdraws one, so
+ * when keycloak is down retries can't multiply the load.
+ */
+@Slf4j
+public class KeycloakRetryPolicy {
+
+  private static final Set<Integer> RETRYABLE_STATUSES = Set.of(502, 503, 504);
+
+  private final String realm;
+  private final IdmClientProperties.Retry properties;
+  private final KeycloakClientMetrics metrics;
+
+  private double budget;
+
+  public KeycloakRetryPolicy(String realm, IdmClientProperties.Retry properties,
+      KeycloakClientMetrics metrics) {
+    this.realm = realm;
+    this.properties = properties;
+    this.metrics = metrics;
+    this.budget = properties.getBudgetCapacity();
+  }
+
+  /**
+   * Execute the request retrying its transient failures.
+   *
+   * @param operation operation name, e.g. {@code searchUsers}
+   * @param request   idempotent keycloak request
+   * @return request result
+   */
+  public <T> T execute(String operation, Supplier<T> request) {
+    deposit();
+    for (var attempt = 1; ; attempt++) {
+      try {
+        return request.get();
+      } catch (RuntimeException exception) {
+        if (attempt >= properties.getMaxAttempts() || !isRetryable(exception)) {
+          throw exception;
+        }
+        if (!withdraw()) {
+          log.warn("Retry budget of realm {} is exhausted, {} isn't retried", realm, operation);
+          metrics.requestRetried(realm, operation, false);
+          throw exception;
+        }
+        metrics.requestRetried(realm, operation, true);
+        var backoff = backoff(attempt);
+        log.warn("Attempt {} of {} in realm {} failed, retrying in {}", attempt, operation, realm,
+            backoff, exception);
+        if (!sleep(backoff)) {
+          throw exception;
+        }
+      }
+    }
+  }
+
+  Duration backoff(int attempt) {
+    var exponential = properties.getInitialBackoff().toMillis()
+        * Math.pow(properties.getBackoffMultiplier(), attempt - 1);
+    var max = (long) Math.min(exponential, properties.getMaxBackoff().toMillis());
+    return Duration.ofMillis(max <= 0 ? 0 : ThreadLocalRandom.current().nextLong(max + 1));
+  }
+
+  static boolean isRetryable(Throwable exception) {
+    if (exception instanceof KeycloakCircuitBreakerOpenException) {
+      return false;
+    }
+    for (var cause = exception; Objects.nonNull(cause); cause = cause.getCause()) {
+      if (cause instanceof ProcessingException) {
+        return true;
+      }
+      if (cause instanceof WebApplicationException) {
+        var response = ((WebApplicationException) cause).getResponse();
+        return Objects.nonNull(response) && RETRYABLE_STATUSES.contains(response.getStatus());
+      }
+    }
+    return false;
+  }
+
+  private synchronized void deposit() {
+    budget = Math.min(properties.getBudgetCapacity(), budget + properties.getBudgetRatio());
+  }
+
+  private synchronized boolean withdraw() {
+    if (budget < 1) {
+      return false;
+    }
+    budget--;
+    return true;
+  }
+
+  private static boolean sleep(Duration backoff) {
+    try {
+      Thread.sleep(backoff.toMillis());
+      return true;
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+}
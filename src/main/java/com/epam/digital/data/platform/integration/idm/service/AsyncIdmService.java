@@ -0,0 +1,114 @@
+/*
+ * Copyright 2023 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.integration.idm.service;
+
+import com.epam.digital.data.platform.integration.idm.model.BulkOperationReport;
+import com.epam.digital.data.platform.integration.idm.model.IdmRole;
+import com.epam.digital.data.platform.integration.idm.model.IdmUser;
+import com.epam.digital.data.platform.integration.idm.model.IdmUsersResponse;
+import com.epam.digital.data.platform.integration.idm.model.SearchUsersByAttributesRequestDto;
+import com.epam.digital.data.platform.integration.idm.model.SearchUsersByRoleAndAttributesRequestDto;
+import com.epam.digital.data.platform.integration.idm.model.UserPatch;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+import org.keycloak.representations.idm.RoleRepresentation;
+import org.keycloak.representations.idm.UserRepresentation;
+
+/**
+ * Non-blocking counterpart of {@link IdmService}. Every operation is executed on a bounded
+ * executor and the result is returned as {@link CompletableFuture}. If the executor is saturated,
+ * returned future is completed with
+ * {@link com.epam.digital.data.platform.integration.idm.exception.KeycloakException}.
+ */
+public interface AsyncIdmService {
+
+  CompletableFuture<String> getClientAccessToken();
+
+  CompletableFuture<List<IdmRole>> getRoles();
+
+  CompletableFuture<List<RoleRepresentation>> getRoleRepresentations();
+
+  CompletableFuture<Void> removeRole(String username, String role);
+
+  CompletableFuture<Void> removeRoles(String username, List<RoleRepresentation> roles);
+
+  CompletableFuture<Void> addRole(String username, String role);
+
+  CompletableFuture<Void> addRoles(String username, List<RoleRepresentation> roles);
+
+  CompletableFuture<BulkOperationReport> assignRoles(
+      Map<String, List<RoleRepresentation>> rolesByUsername);
+
+  CompletableFuture<BulkOperationReport> unassignRoles(
+      Map<String, List<RoleRepresentation>> rolesByUsername);
+
+  CompletableFuture<List<IdmUser>> getRoleUserMembers(String role, Integer offset, Integer limit);
+
+  CompletableFuture<List<IdmUser>> getAllRoleUserMembers(String role);
+
+  CompletableFuture<IdmUsersResponse> searchUsers(SearchUsersByAttributesRequestDto requestDto);
+
+  /**
+   * Search users by attributes matching walking through all pages lazily. The next page is
+   * prefetched in background while the current one is consumed. Close the stream if it isn't
+   * consumed fully to stop prefetching.
+   *
+   * @param requestDto dto that contains map of required matches for user attributes, pagination
+   *                   limit defines the page size
+   * @return sequential stream of found users of all pages
+   */
+  Stream<IdmUser> streamUsers(SearchUsersByAttributesRequestDto requestDto);
+
+  CompletableFuture<IdmUsersResponse> searchUsersByRoleAndAttributes(
+      SearchUsersByRoleAndAttributesRequestDto requestDto);
+
+  CompletableFuture<List<IdmUser>> getUserByUserName(String username);
+
+  CompletableFuture<Void> saveUserAttribute(String username, String attribute,
+      List<String> values);
+
+  CompletableFuture<List<RoleRepresentation>> getUserRoles(String username);
+
+  CompletableFuture<UserRepresentation> getUserRepresentationByUserName(String username);
+
+  CompletableFuture<Void> updateUserRepresentation(UserRepresentation user);
+
+  CompletableFuture<Void> patchUser(String username, UserPatch patch);
+
+  /**
+   * Create keycloak user and add roles to it.
+   *
+   * @param user  entity to create
+   * @param roles list of roles to add after user creation
+   * @return future completed after user is created and roles are added
+   * @see IdmService#createUserRepresentation(UserRepresentation, List)
+   */
+  CompletableFuture<Void> createUserRepresentation(UserRepresentation user,
+      List<RoleRepresentation> roles);
+
+  /**
+   * Create keycloak user with roles.
+   *
+   * @param user  entity to create
+   * @param roles list of roles to add after user creation
+   * @return future of created user id completed after roles are added
+   * @see IdmService#createUser(UserRepresentation, List)
+   */
+  CompletableFuture<String> createUser(UserRepresentation user, List<RoleRepresentation> roles);
+}
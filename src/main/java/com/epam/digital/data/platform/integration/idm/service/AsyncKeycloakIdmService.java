@@ -0,0 +1,200 @@
+/*
+ * Copyright 2023 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.integration.idm.service;
+
+import com.epam.digital.data.platform.integration.idm.exception.KeycloakException;
+import com.epam.digital.data.platform.integration.idm.model.BulkOperationReport;
+import com.epam.digital.data.platform.integration.idm.model.IdmRole;
+import com.epam.digital.data.platform.integration.idm.model.IdmUser;
+import com.epam.digital.data.platform.integration.idm.model.IdmUsersResponse;
+import com.epam.digital.data.platform.integration.idm.model.SearchUsersByAttributesRequestDto;
+import com.epam.digital.data.platform.integration.idm.model.SearchUsersByRoleAndAttributesRequestDto;
+import com.epam.digital.data.platform.integration.idm.model.UserPatch;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import lombok.RequiredArgsConstructor;
+import org.keycloak.representations.idm.RoleRepresentation;
+import org.keycloak.representations.idm.UserRepresentation;
+
+/**
+ * {@link AsyncIdmService} that runs blocking {@link IdmService} operations on given executor.
+ * Search pages of {@link AsyncIdmService#streamUsers} are prefetched on the page executor.
+ */
+@RequiredArgsConstructor
+public class AsyncKeycloakIdmService implements AsyncIdmService {
+
+  private static final int DEFAULT_MAX_PREFETCHED_PAGES = 2;
+
+  private final IdmService idmService;
+  private final Executor executor;
+  private final Executor pageExecutor;
+  private final int maxPrefetchedPages;
+
+  public AsyncKeycloakIdmService(IdmService idmService, Executor executor) {
+    this(idmService, executor, DEFAULT_MAX_PREFETCHED_PAGES);
+  }
+
+  public AsyncKeycloakIdmService(IdmService idmService, Executor executor,
+      int maxPrefetchedPages) {
+    this(idmService, executor, executor, maxPrefetchedPages);
+  }
+
+  @Override
+  public CompletableFuture<String> getClientAccessToken() {
+    return supplyAsync(idmService::getClientAccessToken);
+  }
+
+  @Override
+  public CompletableFuture<List<IdmRole>> getRoles() {
+    return supplyAsync(idmService::getRoles);
+  }
+
+  @Override
+  public CompletableFuture<List<RoleRepresentation>> getRoleRepresentations() {
+    return supplyAsync(idmService::getRoleRepresentations);
+  }
+
+  @Override
+  public CompletableFuture<Void> removeRole(String username, String role) {
+    return runAsync(() -> idmService.removeRole(username, role));
+  }
+
+  @Override
+  public CompletableFuture<Void> removeRoles(String username, List<RoleRepresentation> roles) {
+    return runAsync(() -> idmService.removeRoles(username, roles));
+  }
+
+  @Override
+  public CompletableFuture<Void> addRole(String username, String role) {
+    return runAsync(() -> idmService.addRole(username, role));
+  }
+
+  @Override
+  public CompletableFuture<Void> addRoles(String username, List<RoleRepresentation> roles) {
+    return runAsync(() -> idmService.addRoles(username, roles));
+  }
+
+  @Override
+  public CompletableFuture<BulkOperationReport> assignRoles(
+      Map<String, List<RoleRepresentation>> rolesByUsername) {
+    return supplyAsync(() -> idmService.assignRoles(rolesByUsername));
+  }
+
+  @Override
+  public CompletableFuture<BulkOperationReport> unassignRoles(
+      Map<String, List<RoleRepresentation>> rolesByUsername) {
+    return supplyAsync(() -> idmService.unassignRoles(rolesByUsername));
+  }
+
+  @Override
+  public CompletableFuture<List<IdmUser>> getRoleUserMembers(String role, Integer offset,
+      Integer limit) {
+    return supplyAsync(() -> idmService.getRoleUserMembers(role, offset, limit));
+  }
+
+  @Override
+  public CompletableFuture<List<IdmUser>> getAllRoleUserMembers(String role) {
+    return supplyAsync(() -> idmService.getAllRoleUserMembers(role));
+  }
+
+  @Override
+  public CompletableFuture<IdmUsersResponse> searchUsers(
+      SearchUsersByAttributesRequestDto requestDto) {
+    return supplyAsync(() -> idmService.searchUsers(requestDto));
+  }
+
+  @Override
+  public Stream<IdmUser> streamUsers(SearchUsersByAttributesRequestDto requestDto) {
+    var iterator = new PrefetchingSearchUsersIterator(idmService, pageExecutor, maxPrefetchedPages,
+        requestDto);
+    return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+        Spliterator.ORDERED | Spliterator.NONNULL), false).onClose(iterator::close);
+  }
+
+  @Override
+  public CompletableFuture<IdmUsersResponse> searchUsersByRoleAndAttributes(
+      SearchUsersByRoleAndAttributesRequestDto requestDto) {
+    return supplyAsync(() -> idmService.searchUsersByRoleAndAttributes(requestDto));
+  }
+
+  @Override
+  public CompletableFuture<List<IdmUser>> getUserByUserName(String username) {
+    return supplyAsync(() -> idmService.getUserByUserName(username));
+  }
+
+  @Override
+  public CompletableFuture<Void> saveUserAttribute(String username, String attribute,
+      List<String> values) {
+    return runAsync(() -> idmService.saveUserAttribute(username, attribute, values));
+  }
+
+  @Override
+  public CompletableFuture<List<RoleRepresentation>> getUserRoles(String username) {
+    return supplyAsync(() -> idmService.getUserRoles(username));
+  }
+
+  @Override
+  public CompletableFuture<UserRepresentation> getUserRepresentationByUserName(String username) {
+    return supplyAsync(() -> idmService.getUserRepresentationByUserName(username));
+  }
+
+  @Override
+  public CompletableFuture<Void> updateUserRepresentation(UserRepresentation user) {
+    return runAsync(() -> idmService.updateUserRepresentation(user));
+  }
+
+  @Override
+  public CompletableFuture<Void> patchUser(String username, UserPatch patch) {
+    return runAsync(() -> idmService.patchUser(username, patch));
+  }
+
+  @Override
+  public CompletableFuture<Void> createUserRepresentation(UserRepresentation user,
+      List<RoleRepresentation> roles) {
+    return runAsync(() -> idmService.createUserRepresentation(user, roles));
+  }
+
+  @Override
+  public CompletableFuture<String> createUser(UserRepresentation user,
+      List<RoleRepresentation> roles) {
+    return supplyAsync(() -> idmService.createUser(user, roles));
+  }
+
+  private <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier) {
+    try {
+      return CompletableFuture.supplyAsync(supplier, executor);
+    } catch (RejectedExecutionException exception) {
+      return CompletableFuture.failedFuture(
+          new KeycloakException("Idm request is rejected, executor is saturated", exception));
+    }
+  }
+
+  private CompletableFuture<Void> runAsync(Runnable runnable) {
+    return supplyAsync(() -> {
+      runnable.run();
+      return null;
+    });
+  }
+}
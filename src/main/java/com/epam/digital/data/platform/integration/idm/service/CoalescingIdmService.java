@@ -0,0 +1,214 @@
+/*
+ * Copyright 2023 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.idm.service;
+
+import com.epam.digital.data.platform.integration.idm.model.BulkOperationReport;
+import com.epam.digital.data.platform.integration.idm.model.IdmRole;
+import com.epam.digital.data.platform.integration.idm.model.IdmUser;
+import com.epam.digital.data.platform.integration.idm.model.IdmUsersResponse;
+import com.epam.digital.data.platform.integration.idm.model.SearchUserQuery;
+import com.epam.digital.data.platform.integration.idm.model.SearchUsersByAttributesRequestDto;
+import com.epam.digital.data.platform.integration.idm.model.SearchUsersByEqualsAndStartsWithAttributesRequestDto;
+import com.epam.digital.data.platform.integration.idm.model.SearchUsersByRoleAndAttributesRequestDto;
+import com.epam.digital.data.platform.integration.idm.model.UserPatch;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.keycloak.representations.idm.RoleRepresentation;
+import org.keycloak.representations.idm.UserRepresentation;
+
+/**
+ * Idm service that coalesces identical concurrent read requests: a call made while the same call
+ * with equal arguments is in flight waits for it and gets the same result or exception instead of
+ * sending its own keycloak request. Completed results aren't cached.
+ * <p>
+ * Results are shared between coalesced callers, so they must not be modified. Mutations and
+ * {@link IdmService#getUserRepresentationByUserName(String)}, which result is usually modified and
+ * sent back to keycloak, are never coalesced.
+ */
+@Slf4j
+public class CoalescingIdmService implements IdmService {
+
+  private final IdmService idmService;
+  private final Map<List<Object>, CompletableFuture<Object>> inFlightRequests =
+      new ConcurrentHashMap<>();
+
+  public CoalescingIdmService(IdmService idmService) {
+    this.idmService = idmService;
+  }
+
+  @Override
+  public String getClientAccessToken() {
+    return idmService.getClientAccessToken();
+  }
+
+  @Override
+  public List<IdmRole> getRoles() {
+    return coalesce(idmService::getRoles, "getRoles");
+  }
+
+  @Override
+  public List<RoleRepresentation> getRoleRepresentations() {
+    return coalesce(idmService::getRoleRepresentations, "getRoleRepresentations");
+  }
+
+  @Override
+  public void removeRole(String username, String role) {
+    idmService.removeRole(username, role);
+  }
+
+  @Override
+  public void removeRoles(String username, List<RoleRepresentation> roles) {
+    idmService.removeRoles(username, roles);
+  }
+
+  @Override
+  public void addRole(String username, String role) {
+    idmService.addRole(username, role);
+  }
+
+  @Override
+  public void addRoles(String username, List<RoleRepresentation> roles) {
+    idmService.addRoles(username, roles);
+  }
+
+  @Override
+  public BulkOperationReport assignRoles(Map<String, List<RoleRepresentation>> rolesByUsername) {
+    return idmService.assignRoles(rolesByUsername);
+  }
+
+  @Override
+  public BulkOperationReport unassignRoles(Map<String, List<RoleRepresentation>> rolesByUsername) {
+    return idmService.unassignRoles(rolesByUsername);
+  }
+
+  @Override
+  public List<IdmUser> getRoleUserMembers(String role, Integer offset, Integer limit) {
+    return coalesce(() -> idmService.getRoleUserMembers(role, offset, limit),
+        "getRoleUserMembers", role, offset, limit);
+  }
+
+  @Override
+  public List<IdmUser> getAllRoleUserMembers(String role) {
+    return coalesce(() -> idmService.getAllRoleUserMembers(role), "getAllRoleUserMembers", role);
+  }
+
+  @Override
+  public List<IdmUser> searchUsers(SearchUserQuery searchUserQuery) {
+    return coalesce(() -> idmService.searchUsers(searchUserQuery), "searchUsersByQuery",
+        searchUserQuery);
+  }
+
+  @Override
+  public List<IdmUser> searchUsers(
+      SearchUsersByEqualsAndStartsWithAttributesRequestDto searchUserQuery) {
+    return coalesce(() -> idmService.searchUsers(searchUserQuery),
+        "searchUsersByEqualsAndStartsWith", searchUserQuery);
+  }
+
+  @Override
+  public IdmUsersResponse searchUsers(SearchUsersByAttributesRequestDto requestDto) {
+    return coalesce(() -> idmService.searchUsers(requestDto), "searchUsers", requestDto);
+  }
+
+  @Override
+  public IdmUsersResponse searchUsersByRoleAndAttributes(
+      SearchUsersByRoleAndAttributesRequestDto requestDto) {
+    return coalesce(() -> idmService.searchUsersByRoleAndAttributes(requestDto),
+        "searchUsersByRoleAndAttributes", requestDto);
+  }
+
+  @Override
+  public List<IdmUser> getUserByUserName(String username) {
+    return coalesce(() -> idmService.getUserByUserName(username), "getUserByUserName", username);
+  }
+
+  @Override
+  public void saveUserAttribute(String username, String attribute, List<String> values) {
+    idmService.saveUserAttribute(username, attribute, values);
+  }
+
+  @Override
+  public List<RoleRepresentation> getUserRoles(String username) {
+    return coalesce(() -> idmService.getUserRoles(username), "getUserRoles", username);
+  }
+
+  @Override
+  public UserRepresentation getUserRepresentationByUserName(String username) {
+    return idmService.getUserRepresentationByUserName(username);
+  }
+
+  @Override
+  public void updateUserRepresentation(UserRepresentation user) {
+    idmService.updateUserRepresentation(user);
+  }
+
+  @Override
+  public void patchUser(String username, UserPatch patch) {
+    idmService.patchUser(username, patch);
+  }
+
+  @Override
+  public void createUserRepresentation(UserRepresentation user, List<RoleRepresentation> roles) {
+    idmService.createUserRepresentation(user, roles);
+  }
+
+  @Override
+  public String createUser(UserRepresentation user, List<RoleRepresentation> roles) {
+    return idmService.createUser(user, roles);
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> T coalesce(Supplier<T> call, Object... key) {
+    var requestKey = Arrays.asList(key);
+    var request = new CompletableFuture<Object>();
+    var inFlightRequest = inFlightRequests.putIfAbsent(requestKey, request);
+    if (Objects.nonNull(inFlightRequest)) {
+      log.debug("Joining in-flight request {}", requestKey);
+      return (T) join(inFlightRequest);
+    }
+    T result;
+    try {
+      result = call.get();
+    } catch (Throwable throwable) {
+      inFlightRequests.remove(requestKey, request);
+      request.completeExceptionally(throwable);
+      throw throwable;
+    }
+    inFlightRequests.remove(requestKey, request);
+    request.complete(result);
+    return result;
+  }
+
+  private static Object join(CompletableFuture<Object> inFlightRequest) {
+    try {
+      return inFlightRequest.join();
+    } catch (CompletionException exception) {
+      if (exception.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) exception.getCause();
+      }
+      throw exception;
+    }
+  }
+}
@@ -16,6 +16,8 @@
 
 package com.epam.digital.data.platform.integration.idm.service;
 
+import com.epam.digital.data.platform.integration.idm.model.BulkOperationReport;
+import com.epam.digital.data.platform.integration.idm.model.BulkOperationResult;
 import com.epam.digital.data.platform.integration.idm.model.IdmRole;
 import com.epam.digital.data.platform.integration.idm.model.IdmUser;
 import com.epam.digital.data.platform.integration.idm.model.IdmUsersResponse;
@@ -23,8 +25,14 @@ import com.epam.digital.data.platform.integration.idm.model.SearchUserQuery;
 import com.epam.digital.data.platform.integration.idm.model.SearchUsersByAttributesRequestDto;
 import com.epam.digital.data.platform.integration.idm.model.SearchUsersByEqualsAndStartsWithAttributesRequestDto;
 import com.epam.digital.data.platform.integration.idm.model.SearchUsersByRoleAndAttributesRequestDto;
+import com.epam.digital.data.platform.integration.idm.model.UserPatch;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
 import org.keycloak.representations.idm.RoleRepresentation;
 import org.keycloak.representations.idm.UserRepresentation;
 
@@ -44,8 +52,55 @@ public interface IdmService {
 
   void addRoles(String username, List<RoleRepresentation> roles);
 
+  /**
+   * Add roles to many users. Failure of a single user doesn't stop the operation. Default
+   * implementation adds roles user by user with {@link IdmService#addRoles(String, List)}.
+   *
+   * @param rolesByUsername roles to add by username
+   * @return report with result per user
+   */
+  default BulkOperationReport assignRoles(Map<String, List<RoleRepresentation>> rolesByUsername) {
+    return performForEachUser(rolesByUsername, this::addRoles);
+  }
+
+  /**
+   * Remove roles from many users. Failure of a single user doesn't stop the operation. Default
+   * implementation removes roles user by user with {@link IdmService#removeRoles(String, List)}.
+   *
+   * @param rolesByUsername roles to remove by username
+   * @return report with result per user
+   */
+  default BulkOperationReport unassignRoles(
+      Map<String, List<RoleRepresentation>> rolesByUsername) {
+    return performForEachUser(rolesByUsername, this::removeRoles);
+  }
+
   List<IdmUser> getRoleUserMembers(String role, Integer offset, Integer limit);
 
+  /**
+   * Get all users with given role walking through all role member pages. Unlike
+   * {@link IdmService#getRoleUserMembers(String, Integer, Integer)} users aren't sorted and
+   * service accounts aren't filtered out, their full name is {@code null}.
+   * <p>
+   * Default implementation walks pages of
+   * {@link IdmService#getRoleUserMembers(String, Integer, Integer)} until an empty page, so users
+   * are sorted within a page and service accounts are filtered out.
+   *
+   * @param role role name
+   * @return users without duplicates in the order of pages
+   */
+  default List<IdmUser> getAllRoleUserMembers(String role) {
+    var pageSize = 100;
+    var users = new LinkedHashSet<IdmUser>();
+    for (var offset = 0; ; offset += pageSize) {
+      var page = getRoleUserMembers(role, offset, pageSize);
+      if (page.isEmpty()) {
+        return new ArrayList<>(users);
+      }
+      users.addAll(page);
+    }
+  }
+
   /**
    * @deprecated use {@link IdmService#searchUsers(SearchUsersByAttributesRequestDto)} instead
    */
@@ -79,6 +134,38 @@ public interface IdmService {
 
   void updateUserRepresentation(UserRepresentation user);
 
+  /**
+   * Apply attribute, enabled flag and role changes to the user. The user is resolved once,
+   * representation is read and updated once, roles are added and removed with at most one call
+   * each.
+   * <p>
+   * Default implementation reads the representation with
+   * {@link IdmService#getUserRepresentationByUserName(String)}, updates it with
+   * {@link IdmService#updateUserRepresentation(UserRepresentation)} and changes roles with
+   * {@link IdmService#removeRoles(String, List)} and {@link IdmService#addRoles(String, List)}.
+   *
+   * @param username username
+   * @param patch    changes to apply
+   */
+  default void patchUser(String username, UserPatch patch) {
+    if (patch.hasRepresentationChanges()) {
+      var user = getUserRepresentationByUserName(username);
+      patch.applyTo(user);
+      updateUserRepresentation(user);
+    }
+    var addedRoles = patch.getRolesToAdd().stream().map(RoleRepresentation::getName)
+        .collect(Collectors.toSet());
+    var rolesToRemove = patch.getRolesToRemove().stream()
+        .filter(role -> !addedRoles.contains(role.getName()))
+        .collect(Collectors.toList());
+    if (!rolesToRemove.isEmpty()) {
+      removeRoles(username, rolesToRemove);
+    }
+    if (!patch.getRolesToAdd().isEmpty()) {
+      addRoles(username, patch.getRolesToAdd());
+    }
+  }
+
   /**
    * Create keycloak user.
    * <p>
@@ -89,4 +176,34 @@ public interface IdmService {
    * @param roles list of roles to add after user creation
    */
   void createUserRepresentation(UserRepresentation user, List<RoleRepresentation> roles);
+
+  /**
+   * Create keycloak user with roles and return its id. Default implementation creates the user with
+   * {@link IdmService#createUserRepresentation(UserRepresentation, List)} and reads its id with
+   * {@link IdmService#getUserRepresentationByUserName(String)}.
+   *
+   * @param user  entity to create
+   * @param roles list of roles to add after user creation
+   * @return id of created user
+   */
+  default String createUser(UserRepresentation user, List<RoleRepresentation> roles) {
+    createUserRepresentation(user, roles);
+    return getUserRepresentationByUserName(user.getUsername()).getId();
+  }
+
+  private BulkOperationReport performForEachUser(
+      Map<String, List<RoleRepresentation>> rolesByUsername,
+      BiConsumer<String, List<RoleRepresentation>> operation) {
+    var results = new ArrayList<BulkOperationResult>(rolesByUsername.size());
+    rolesByUsername.forEach((username, roles) -> {
+      try {
+        operation.accept(username, roles);
+        results.add(BulkOperationResult.builder().username(username).succeeded(true).build());
+      } catch (RuntimeException exception) {
+        results.add(BulkOperationResult.builder().username(username).succeeded(false)
+            .errorMessage(exception.getMessage()).build());
+      }
+    });
+    return BulkOperationReport.builder().results(results).build();
+  }
 }
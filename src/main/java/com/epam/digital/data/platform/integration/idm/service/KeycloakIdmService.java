@@ -16,7 +16,9 @@
 
 package com.epam.digital.data.platform.integration.idm.service;
 
+import com.epam.digital.data.platform.integration.idm.cache.UserIdCache;
 import com.epam.digital.data.platform.integration.idm.client.KeycloakAdminClient;
+import com.epam.digital.data.platform.integration.idm.client.UserChangeListener;
 import com.epam.digital.data.platform.integration.idm.exception.KeycloakException;
 import com.epam.digital.data.platform.integration.idm.mapper.IdmUsersMapper;
 import com.epam.digital.data.platform.integration.idm.model.*;
@@ -24,20 +26,71 @@ import com.epam.digital.data.platform.integration.idm.model.*;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import java.util.function.BiConsumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
-import lombok.RequiredArgsConstructor;
+import javax.ws.rs.NotFoundException;
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
 import org.keycloak.admin.client.resource.RealmResource;
 import org.keycloak.admin.client.resource.RoleScopeResource;
 import org.keycloak.representations.idm.RoleRepresentation;
 import org.keycloak.representations.idm.UserRepresentation;
 
-@RequiredArgsConstructor
+@Slf4j
 public class KeycloakIdmService implements IdmService {
 
+  private static final int DEFAULT_BULK_PARALLELISM = 8;
+
   private final KeycloakAdminClient client;
   private final IdmUsersMapper idmUsersMapper;
+  private final UserIdCache userIdCache;
+  private final AttributeDictionary attributeDictionary;
+  private final Executor executor;
+  private final int bulkParallelism;
+
+  public KeycloakIdmService(KeycloakAdminClient client, IdmUsersMapper idmUsersMapper) {
+    this(client, idmUsersMapper, null, null, null, null);
+  }
+
+  /**
+   * @param userIdCache     optional cache of user ids by username, user id is resolved with
+   *                        keycloak search on every operation if it's {@code null}
+   * @param executor        executor of bulk operations, users are processed sequentially if it's
+   *                        {@code null}
+   * @param bulkParallelism     max users processed concurrently by bulk operations
+   * @param attributeDictionary optional dictionary of attributes, attributes of returned users are
+   *                            {@link CompactAttributeMap compact read-only maps} if it's set
+   */
+  @Builder
+  private KeycloakIdmService(KeycloakAdminClient client, IdmUsersMapper idmUsersMapper,
+      UserIdCache userIdCache, Executor executor, Integer bulkParallelism,
+      AttributeDictionary attributeDictionary) {
+    this.client = client;
+    this.idmUsersMapper = idmUsersMapper;
+    this.userIdCache = userIdCache;
+    this.attributeDictionary = attributeDictionary;
+    this.executor = executor;
+    this.bulkParallelism = Objects.isNull(executor) ? 1
+        : Objects.requireNonNullElse(bulkParallelism, DEFAULT_BULK_PARALLELISM);
+    if (Objects.nonNull(userIdCache)) {
+      client.addUserChangeListener(new UserChangeListener() {
+        @Override
+        public void userChanged(String userId) {
+          userIdCache.invalidateUserId(userId);
+        }
+
+        @Override
+        public void usersReloaded() {
+          userIdCache.invalidateAll();
+        }
+      });
+    }
+  }
 
   @Override
   public String getClientAccessToken() {
@@ -77,12 +130,31 @@ public class KeycloakIdmService implements IdmService {
     performOperationForRoles(username, roles, client::addRoles);
   }
 
+  @Override
+  public BulkOperationReport assignRoles(Map<String, List<RoleRepresentation>> rolesByUsername) {
+    return performBulkOperationForRoles(rolesByUsername, client::addRoles);
+  }
+
+  @Override
+  public BulkOperationReport unassignRoles(
+      Map<String, List<RoleRepresentation>> rolesByUsername) {
+    return performBulkOperationForRoles(rolesByUsername, client::removeRoles);
+  }
+
   @Override
   public List<IdmUser> getRoleUserMembers(String role, Integer offset, Integer limit) {
     var realmResource = client.getRealmResource();
     return mapToIdmUsers(client.getRoleUserMembers(realmResource, role, offset, limit));
   }
 
+  @Override
+  public List<IdmUser> getAllRoleUserMembers(String role) {
+    var realmResource = client.getRealmResource();
+    return client.getAllRoleUserMembers(realmResource, role).stream()
+        .map(this::toIdmUser)
+        .collect(Collectors.toList());
+  }
+
   @Override
   public List<IdmUser> searchUsers(SearchUserQuery searchUserQuery) {
     return mapToIdmUsers(client.searchUsersByAttributes(searchUserQuery));
@@ -96,13 +168,15 @@ public class KeycloakIdmService implements IdmService {
 
   @Override
   public IdmUsersResponse searchUsers(SearchUsersByAttributesRequestDto requestDto) {
-    return idmUsersMapper.toIdmUsersResponse(client.searchUsersByAttributes(requestDto));
+    return compactAttributes(
+        idmUsersMapper.toIdmUsersResponse(client.searchUsersByAttributes(requestDto)));
   }
 
   @Override
   public IdmUsersResponse searchUsersByRoleAndAttributes(
       SearchUsersByRoleAndAttributesRequestDto requestDto) {
-    return idmUsersMapper.toIdmUsersResponse(client.searchUsersByRoleAndAttributes(requestDto));
+    return compactAttributes(
+        idmUsersMapper.toIdmUsersResponse(client.searchUsersByRoleAndAttributes(requestDto)));
   }
 
   @Override
@@ -114,14 +188,17 @@ public class KeycloakIdmService implements IdmService {
   @Override
   public void saveUserAttribute(String username, String attribute, List<String> values) {
     var realmResource = client.getRealmResource();
-    var user = client.getUsersRepresentationByUsername(realmResource, username);
-    client.saveUserAttribute(realmResource, user.get(0).getId(), attribute, values);
+    performForUserId(realmResource, username, userId -> {
+      client.saveUserAttribute(realmResource, userId, attribute, values);
+      return null;
+    });
   }
 
   @Override
   public List<RoleRepresentation> getUserRoles(String username) {
     var realmResource = client.getRealmResource();
-    return getRoleScopeResource(realmResource, username).listAll();
+    return performForUserId(realmResource, username,
+        userId -> client.getRoleScopeResource(realmResource, userId).listAll());
   }
 
   @Override
@@ -136,28 +213,69 @@ public class KeycloakIdmService implements IdmService {
     client.updateUserRepresentation(realmResource, user);
   }
 
+  @Override
+  public void patchUser(String username, UserPatch patch) {
+    var realmResource = client.getRealmResource();
+    performForUserId(realmResource, username, userId -> {
+      if (patch.hasRepresentationChanges()) {
+        client.patchUserRepresentation(realmResource, userId, patch::applyTo);
+      }
+      if (patch.hasRoleChanges()) {
+        applyRoleDiff(client.getRoleScopeResource(realmResource, userId), patch);
+      }
+      return null;
+    });
+  }
+
   @Override
   public void createUserRepresentation(UserRepresentation user, List<RoleRepresentation> roles) {
+    createUser(user, roles);
+  }
+
+  @Override
+  public String createUser(UserRepresentation user, List<RoleRepresentation> roles) {
     var realmResource = client.getRealmResource();
-    client.createUserRepresentation(realmResource, user);
+    var userId = client.createUser(realmResource, user);
+    if (Objects.nonNull(userIdCache)) {
+      userIdCache.put(user.getUsername(), userId);
+    }
 
-    var roleScopeResource = getRoleScopeResource(realmResource, user.getUsername());
+    var roleScopeResource = client.getRoleScopeResource(realmResource, userId);
     client.addRoles(roleScopeResource, roles);
+    return userId;
   }
 
   private List<IdmUser> mapToIdmUsers(Collection<UserRepresentation> roleUserMembers) {
     return roleUserMembers.stream()
         .filter(this::hasFullNameAttribute)
-        .map(user -> IdmUser.builder().id(user.getId())
-                .enabled(user.isEnabled()).userName(user.getUsername()).fullName(
-                user.getAttributes().get(KeycloakSystemAttribute.FULL_NAME_ATTRIBUTE)
-                    .get(KeycloakSystemAttribute.FULL_NAME_ATTRIBUTE_INDEX))
-            .attributes(user.getAttributes())
-            .build())
+        .map(this::toIdmUser)
         .sorted(Comparator.comparing(IdmUser::getFullName))
         .collect(Collectors.toList());
   }
 
+  private IdmUser toIdmUser(UserRepresentation user) {
+    return IdmUser.builder().id(user.getId())
+        .enabled(user.isEnabled()).userName(user.getUsername())
+        .fullName(hasFullNameAttribute(user)
+            ? user.getAttributes().get(KeycloakSystemAttribute.FULL_NAME_ATTRIBUTE)
+            .get(KeycloakSystemAttribute.FULL_NAME_ATTRIBUTE_INDEX) : null)
+        .attributes(compactAttributes(user.getAttributes()))
+        .build();
+  }
+
+  private IdmUsersResponse compactAttributes(IdmUsersResponse response) {
+    if (Objects.nonNull(attributeDictionary) && Objects.nonNull(response.getUsers())) {
+      response.getUsers()
+          .forEach(user -> user.setAttributes(compactAttributes(user.getAttributes())));
+    }
+    return response;
+  }
+
+  private Map<String, List<String>> compactAttributes(Map<String, List<String>> attributes) {
+    return Objects.isNull(attributeDictionary) ? attributes
+        : CompactAttributeMap.of(attributes, attributeDictionary);
+  }
+
   /**
    * Used for filtering out service account users
    *
@@ -183,20 +301,97 @@ public class KeycloakIdmService implements IdmService {
   private void performOperationForRoles(String username, List<RoleRepresentation> roles,
       BiConsumer<RoleScopeResource, List<RoleRepresentation>> operation) {
     var realmResource = client.getRealmResource();
-    var roleScopeResource = getRoleScopeResource(realmResource, username);
-    operation.accept(roleScopeResource, roles);
+    performForUserId(realmResource, username, userId -> {
+      operation.accept(client.getRoleScopeResource(realmResource, userId), roles);
+      return null;
+    });
   }
 
   private void performOperationForRole(String username, String role,
       BiConsumer<RoleScopeResource, List<RoleRepresentation>> operation) {
     var realmResource = client.getRealmResource();
     var roleRepresentation = client.getRoleRepresentation(realmResource, role);
-    var roleScopeResource = getRoleScopeResource(realmResource, username);
-    operation.accept(roleScopeResource, List.of(roleRepresentation));
+    performForUserId(realmResource, username, userId -> {
+      operation.accept(client.getRoleScopeResource(realmResource, userId),
+          List.of(roleRepresentation));
+      return null;
+    });
+  }
+
+  private void applyRoleDiff(RoleScopeResource roleScopeResource, UserPatch patch) {
+    var currentRoles = roleScopeResource.listAll().stream().map(RoleRepresentation::getName)
+        .collect(Collectors.toSet());
+    var addedRoles = patch.getRolesToAdd().stream().map(RoleRepresentation::getName)
+        .collect(Collectors.toSet());
+    var rolesToAdd = patch.getRolesToAdd().stream()
+        .filter(role -> !currentRoles.contains(role.getName()))
+        .collect(Collectors.toList());
+    var rolesToRemove = patch.getRolesToRemove().stream()
+        .filter(role -> currentRoles.contains(role.getName()))
+        .filter(role -> !addedRoles.contains(role.getName()))
+        .collect(Collectors.toList());
+    if (!rolesToAdd.isEmpty()) {
+      client.addRoles(roleScopeResource, rolesToAdd);
+    }
+    if (!rolesToRemove.isEmpty()) {
+      client.removeRoles(roleScopeResource, rolesToRemove);
+    }
+  }
+
+  private BulkOperationReport performBulkOperationForRoles(
+      Map<String, List<RoleRepresentation>> rolesByUsername,
+      BiConsumer<RoleScopeResource, List<RoleRepresentation>> operation) {
+    var realmResource = client.getRealmResource();
+    var results = new ConcurrentHashMap<String, BulkOperationResult>();
+    ParallelExecution.forEach(rolesByUsername.entrySet(), bulkParallelism, executor, entry -> {
+      var username = entry.getKey();
+      try {
+        performForUserId(realmResource, username, userId -> {
+          operation.accept(client.getRoleScopeResource(realmResource, userId), entry.getValue());
+          return null;
+        });
+        results.put(username, BulkOperationResult.builder().username(username).succeeded(true)
+            .build());
+      } catch (RuntimeException exception) {
+        log.warn("Bulk role operation failed for user {}", username, exception);
+        results.put(username, BulkOperationResult.builder().username(username).succeeded(false)
+            .errorMessage(exception.getMessage()).build());
+      }
+    });
+    log.info("Bulk role operation performed for {} users", results.size());
+    return BulkOperationReport.builder()
+        .results(rolesByUsername.keySet().stream().map(results::get).collect(Collectors.toList()))
+        .build();
+  }
+
+  /**
+   * Perform operation with id of the user resolved by username. If the id is taken from the cache
+   * and keycloak responds that such user doesn't exist, the id is resolved once again and the
+   * operation is retried.
+   */
+  private <T> T performForUserId(RealmResource realmResource, String username,
+      Function<String, T> operation) {
+    var cachedUserId = Objects.isNull(userIdCache) ? null : userIdCache.get(username).orElse(null);
+    if (Objects.nonNull(cachedUserId)) {
+      try {
+        return operation.apply(cachedUserId);
+      } catch (RuntimeException exception) {
+        if (!isNotFound(exception)) {
+          throw exception;
+        }
+        log.info("Cached user id of user {} is stale, resolving it again", username);
+        userIdCache.invalidate(username);
+      }
+    }
+    var userId = getUserRepresentation(realmResource, username).getId();
+    if (Objects.nonNull(userIdCache)) {
+      userIdCache.put(username, userId);
+    }
+    return operation.apply(userId);
   }
 
-  private RoleScopeResource getRoleScopeResource(RealmResource realmResource, String username) {
-    var userRepresentation = this.getUserRepresentation(realmResource, username);
-    return client.getRoleScopeResource(realmResource, userRepresentation.getId());
+  private boolean isNotFound(RuntimeException exception) {
+    return exception instanceof NotFoundException
+        || exception.getCause() instanceof NotFoundException;
   }
 }
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2023 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.integration.idm.service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Runs an action for every item with bounded parallelism. Items are taken by lanes: the caller
+ * thread runs one lane itself and the rest are submitted to the executor. A lane that the
+ * executor hasn't started by the time the caller finishes its own lane is skipped, so execution
+ * couldn't get stuck when the caller runs on the same saturated executor.
+ */
+public final class ParallelExecution {
+
+  private ParallelExecution() {
+  }
+
+  /**
+   * @param items       items to process
+   * @param parallelism max number of items processed concurrently
+   * @param executor    executor of lanes, items are processed by the caller thread if it's
+   *                    {@code null}
+   * @param action      action that shouldn't throw exceptions
+   */
+  public static <T> void forEach(Iterable<T> items, int parallelism, Executor executor,
+      Consumer<T> action) {
+    var iterator = items.iterator();
+    var lanes = new ArrayList<Lane<T>>();
+    if (Objects.nonNull(executor)) {
+      for (var i = 1; i < parallelism; i++) {
+        var lane = new Lane<>(iterator, action);
+        lanes.add(lane);
+        try {
+          executor.execute(lane);
+        } catch (RejectedExecutionException exception) {
+          lane.skip();
+          break;
+        }
+      }
+    }
+    var callerLane = new Lane<>(iterator, action);
+    lanes.add(callerLane);
+    callerLane.run();
+    lanes.forEach(Lane::join);
+  }
+
+  private static class Lane<T> implements Runnable {
+
+    private final Iterator<T> iterator;
+    private final Consumer<T> action;
+    private final AtomicBoolean started = new AtomicBoolean();
+    private final CompletableFuture<Void> completion = new CompletableFuture<>();
+
+    Lane(Iterator<T> iterator, Consumer<T> action) {
+      this.iterator = iterator;
+      this.action = action;
+    }
+
+    @Override
+    public void run() {
+      if (!started.compareAndSet(false, true)) {
+        return;
+      }
+      try {
+        for (var item = next(); Objects.nonNull(item); item = next()) {
+          action.accept(item);
+        }
+        completion.complete(null);
+      } catch (Throwable throwable) {
+        completion.completeExceptionally(throwable);
+      }
+    }
+
+    void skip() {
+      if (started.compareAndSet(false, true)) {
+        completion.complete(null);
+      }
+    }
+
+    void join() {
+      skip();
+      try {
+        completion.join();
+      } catch (CompletionException exception) {
+        if (exception.getCause() instanceof RuntimeException) {
+          throw (RuntimeException) exception.getCause();
+        }
+        throw exception;
+      }
+    }
+
+    private T next() {
+      synchronized (iterator) {
+        return iterator.hasNext() ? iterator.next() : null;
+      }
+    }
+  }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2023 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.integration.idm.service;
+
+import com.epam.digital.data.platform.integration.idm.exception.KeycloakException;
+import com.epam.digital.data.platform.integration.idm.model.IdmUser;
+import com.epam.digital.data.platform.integration.idm.model.IdmUsersResponse;
+import com.epam.digital.data.platform.integration.idm.model.SearchUsersByAttributesRequestDto;
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Iterator over users of all search pages. The next page is fetched on the executor while the
+ * caller processes the current one, at most {@code maxPrefetchedPages} pages (fetched or
+ * requested) are held besides the current one.
+ */
+final class PrefetchingSearchUsersIterator implements Iterator<IdmUser>, Closeable {
+
+  private final IdmService idmService;
+  private final Executor executor;
+  private final int maxPrefetchedPages;
+
+  private final Deque<CompletableFuture<IdmUsersResponse>> pages = new ArrayDeque<>();
+  private SearchUsersByAttributesRequestDto pendingRequest;
+  private boolean closed;
+
+  private Iterator<IdmUser> currentPage = Collections.emptyIterator();
+
+  PrefetchingSearchUsersIterator(IdmService idmService, Executor executor,
+      int maxPrefetchedPages, SearchUsersByAttributesRequestDto requestDto) {
+    if (maxPrefetchedPages < 1) {
+      throw new IllegalArgumentException("Max prefetched pages must be positive");
+    }
+    this.idmService = idmService;
+    this.executor = executor;
+    this.maxPrefetchedPages = maxPrefetchedPages;
+    synchronized (this) {
+      fetch(requestDto);
+    }
+  }
+
+  @Override
+  public boolean hasNext() {
+    while (!currentPage.hasNext()) {
+      var page = pollPage();
+      if (Objects.isNull(page)) {
+        return false;
+      }
+      var users = join(page).getUsers();
+      currentPage = Objects.isNull(users) ? Collections.emptyIterator() : users.iterator();
+    }
+    return true;
+  }
+
+  @Override
+  public IdmUser next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    return currentPage.next();
+  }
+
+  /**
+   * Stop prefetching. Pages that are already requested are fetched but not followed.
+   */
+  @Override
+  public synchronized void close() {
+    closed = true;
+    pendingRequest = null;
+    pages.clear();
+  }
+
+  private synchronized CompletableFuture<IdmUsersResponse> pollPage() {
+    var page = pages.pollFirst();
+    if (Objects.nonNull(pendingRequest)) {
+      var request = pendingRequest;
+      pendingRequest = null;
+      fetch(request);
+    }
+    return page;
+  }
+
+  private void fetch(SearchUsersByAttributesRequestDto requestDto) {
+    var page = new CompletableFuture<IdmUsersResponse>();
+    pages.addLast(page);
+    try {
+      executor.execute(() -> load(requestDto, page));
+    } catch (RejectedExecutionException exception) {
+      page.completeExceptionally(
+          new KeycloakException("Idm request is rejected, executor is saturated", exception));
+    }
+  }
+
+  private void load(SearchUsersByAttributesRequestDto requestDto,
+      CompletableFuture<IdmUsersResponse> page) {
+    try {
+      var response = idmService.searchUsers(requestDto);
+      SearchUsersPagination.nextPageRequest(requestDto, response).ifPresent(this::onNextPage);
+      page.complete(response);
+    } catch (RuntimeException exception) {
+      page.completeExceptionally(exception);
+    }
+  }
+
+  private synchronized void onNextPage(SearchUsersByAttributesRequestDto nextRequest) {
+    if (closed) {
+      return;
+    }
+    if (pages.size() < maxPrefetchedPages) {
+      fetch(nextRequest);
+    } else {
+      pendingRequest = nextRequest;
+    }
+  }
+
+  private static IdmUsersResponse join(CompletableFuture<IdmUsersResponse> page) {
+    try {
+      return page.join();
+    } catch (CompletionException exception) {
+      if (exception.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) exception.getCause();
+      }
+      throw exception;
+    }
+  }
+}
@@ -22,4 +22,16 @@ public interface PublicIdmService {
 
   PublishedIdmRealm getRealm(String realm);
 
+  /**
+   * Get realm bypassing any cached value, e.g. when token signature couldn't be verified with
+   * the public key returned by {@link PublicIdmService#getRealm(String)} because realm keys have
+   * been rotated.
+   *
+   * @param realm realm name
+   * @return published realm
+   */
+  default PublishedIdmRealm refreshRealm(String realm) {
+    return getRealm(realm);
+  }
+
 }
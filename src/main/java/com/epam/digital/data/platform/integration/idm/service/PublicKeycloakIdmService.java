@@ -16,17 +16,47 @@
 
 package com.epam.digital.data.platform.integration.idm.service;
 
+import com.epam.digital.data.platform.integration.idm.cache.RealmPublicKeyCache;
 import com.epam.digital.data.platform.integration.idm.model.PublishedIdmRealm;
 import com.epam.digital.data.platform.integration.idm.client.PublicKeycloakAuthClient;
-import lombok.RequiredArgsConstructor;
+import java.util.Objects;
 
-@RequiredArgsConstructor
 public class PublicKeycloakIdmService implements PublicIdmService {
 
   private final PublicKeycloakAuthClient client;
+  private final RealmPublicKeyCache publicKeyCache;
+
+  public PublicKeycloakIdmService(PublicKeycloakAuthClient client) {
+    this(client, null);
+  }
+
+  /**
+   * @param publicKeyCache optional cache of realm public keys, realm is fetched on every call if
+   *                       it's {@code null}
+   */
+  public PublicKeycloakIdmService(PublicKeycloakAuthClient client,
+      RealmPublicKeyCache publicKeyCache) {
+    this.client = client;
+    this.publicKeyCache = publicKeyCache;
+  }
 
   @Override
   public PublishedIdmRealm getRealm(String realm) {
+    if (Objects.isNull(publicKeyCache)) {
+      return fetchRealm(realm);
+    }
+    return publicKeyCache.get(realm, () -> fetchRealm(realm));
+  }
+
+  @Override
+  public PublishedIdmRealm refreshRealm(String realm) {
+    if (Objects.isNull(publicKeyCache)) {
+      return fetchRealm(realm);
+    }
+    return publicKeyCache.refresh(realm, () -> fetchRealm(realm));
+  }
+
+  private PublishedIdmRealm fetchRealm(String realm) {
     return PublishedIdmRealm.builder()
         .publicKey(client.getRealmRepresentation(realm).getPublicKey()).build();
   }
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2023 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.integration.idm.service;
+
+import com.epam.digital.data.platform.integration.idm.model.BulkOperationReport;
+import com.epam.digital.data.platform.integration.idm.model.IdmRole;
+import com.epam.digital.data.platform.integration.idm.model.IdmUser;
+import com.epam.digital.data.platform.integration.idm.model.IdmUsersResponse;
+import com.epam.digital.data.platform.integration.idm.model.SearchUsersByAttributesRequestDto;
+import com.epam.digital.data.platform.integration.idm.model.SearchUsersByRoleAndAttributesRequestDto;
+import com.epam.digital.data.platform.integration.idm.model.UserPatch;
+import java.util.List;
+import java.util.Map;
+import org.keycloak.representations.idm.RoleRepresentation;
+import org.keycloak.representations.idm.UserRepresentation;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of {@link IdmService} for WebFlux consumers. Requires reactor-core on the
+ * classpath.
+ */
+public interface ReactiveIdmService {
+
+  Mono<String> getClientAccessToken();
+
+  Flux<IdmRole> getRoles();
+
+  Flux<RoleRepresentation> getRoleRepresentations();
+
+  Mono<Void> removeRole(String username, String role);
+
+  Mono<Void> removeRoles(String username, List<RoleRepresentation> roles);
+
+  Mono<Void> addRole(String username, String role);
+
+  Mono<Void> addRoles(String username, List<RoleRepresentation> roles);
+
+  Mono<BulkOperationReport> assignRoles(Map<String, List<RoleRepresentation>> rolesByUsername);
+
+  Mono<BulkOperationReport> unassignRoles(Map<String, List<RoleRepresentation>> rolesByUsername);
+
+  Mono<List<IdmUser>> getRoleUserMembers(String role, Integer offset, Integer limit);
+
+  Flux<IdmUser> getAllRoleUserMembers(String role);
+
+  /**
+   * Search users by attributes matching walking through all pages. The next page is requested
+   * only when the subscriber demands users that aren't fetched yet.
+   *
+   * @param requestDto dto that contains map of required matches for user attributes, pagination
+   *                   limit defines the page size
+   * @return found users of all pages
+   */
+  Flux<IdmUser> searchUsers(SearchUsersByAttributesRequestDto requestDto);
+
+  /**
+   * Search users by attributes matching returning single page.
+   *
+   * @see IdmService#searchUsers(SearchUsersByAttributesRequestDto)
+   */
+  Mono<IdmUsersResponse> searchUsersPage(SearchUsersByAttributesRequestDto requestDto);
+
+  Mono<IdmUsersResponse> searchUsersByRoleAndAttributes(
+      SearchUsersByRoleAndAttributesRequestDto requestDto);
+
+  Flux<IdmUser> getUserByUserName(String username);
+
+  Mono<Void> saveUserAttribute(String username, String attribute, List<String> values);
+
+  Flux<RoleRepresentation> getUserRoles(String username);
+
+  Mono<UserRepresentation> getUserRepresentationByUserName(String username);
+
+  Mono<Void> updateUserRepresentation(UserRepresentation user);
+
+  Mono<Void> patchUser(String username, UserPatch patch);
+
+  Mono<Void> createUserRepresentation(UserRepresentation user, List<RoleRepresentation> roles);
+
+  Mono<String> createUser(UserRepresentation user, List<RoleRepresentation> roles);
+}
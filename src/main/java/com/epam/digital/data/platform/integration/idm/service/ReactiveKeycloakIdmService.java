@@ -0,0 +1,202 @@
+/*
+ * Copyright 2023 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.integration.idm.service;
+
+import com.epam.digital.data.platform.integration.idm.model.BulkOperationReport;
+import com.epam.digital.data.platform.integration.idm.model.IdmRole;
+import com.epam.digital.data.platform.integration.idm.model.IdmUser;
+import com.epam.digital.data.platform.integration.idm.model.IdmUsersResponse;
+import com.epam.digital.data.platform.integration.idm.model.SearchUsersByAttributesRequestDto;
+import com.epam.digital.data.platform.integration.idm.model.SearchUsersByRoleAndAttributesRequestDto;
+import com.epam.digital.data.platform.integration.idm.model.UserPatch;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import lombok.RequiredArgsConstructor;
+import org.keycloak.representations.idm.RoleRepresentation;
+import org.keycloak.representations.idm.UserRepresentation;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * {@link ReactiveIdmService} that runs blocking {@link IdmService} operations on an isolated
+ * scheduler, so they never block event loop or reactor global schedulers.
+ */
+@RequiredArgsConstructor
+public class ReactiveKeycloakIdmService implements ReactiveIdmService {
+
+  private final IdmService idmService;
+  private final Scheduler scheduler;
+
+  /**
+   * Create reactive service that runs operations on the bounded elastic scheduler shared by all
+   * reactive idm services created with this constructor.
+   */
+  public ReactiveKeycloakIdmService(IdmService idmService) {
+    this(idmService, DefaultSchedulerHolder.SCHEDULER);
+  }
+
+  @Override
+  public Mono<String> getClientAccessToken() {
+    return fromCallable(idmService::getClientAccessToken);
+  }
+
+  @Override
+  public Flux<IdmRole> getRoles() {
+    return fromCallable(idmService::getRoles).flatMapIterable(roles -> roles);
+  }
+
+  @Override
+  public Flux<RoleRepresentation> getRoleRepresentations() {
+    return fromCallable(idmService::getRoleRepresentations).flatMapIterable(roles -> roles);
+  }
+
+  @Override
+  public Mono<Void> removeRole(String username, String role) {
+    return fromRunnable(() -> idmService.removeRole(username, role));
+  }
+
+  @Override
+  public Mono<Void> removeRoles(String username, List<RoleRepresentation> roles) {
+    return fromRunnable(() -> idmService.removeRoles(username, roles));
+  }
+
+  @Override
+  public Mono<Void> addRole(String username, String role) {
+    return fromRunnable(() -> idmService.addRole(username, role));
+  }
+
+  @Override
+  public Mono<Void> addRoles(String username, List<RoleRepresentation> roles) {
+    return fromRunnable(() -> idmService.addRoles(username, roles));
+  }
+
+  @Override
+  public Mono<BulkOperationReport> assignRoles(
+      Map<String, List<RoleRepresentation>> rolesByUsername) {
+    return fromCallable(() -> idmService.assignRoles(rolesByUsername));
+  }
+
+  @Override
+  public Mono<BulkOperationReport> unassignRoles(
+      Map<String, List<RoleRepresentation>> rolesByUsername) {
+    return fromCallable(() -> idmService.unassignRoles(rolesByUsername));
+  }
+
+  @Override
+  public Mono<List<IdmUser>> getRoleUserMembers(String role, Integer offset, Integer limit) {
+    return fromCallable(() -> idmService.getRoleUserMembers(role, offset, limit));
+  }
+
+  @Override
+  public Flux<IdmUser> getAllRoleUserMembers(String role) {
+    return fromCallable(() -> idmService.getAllRoleUserMembers(role))
+        .flatMapIterable(users -> users);
+  }
+
+  @Override
+  public Flux<IdmUser> searchUsers(SearchUsersByAttributesRequestDto requestDto) {
+    return searchPage(requestDto)
+        .expand(page -> SearchUsersPagination.nextPageRequest(page.request, page.response)
+            .map(this::searchPage)
+            .orElseGet(Mono::empty))
+        .concatMapIterable(
+            page -> Objects.requireNonNullElse(page.response.getUsers(), List.<IdmUser>of()), 1);
+  }
+
+  @Override
+  public Mono<IdmUsersResponse> searchUsersPage(SearchUsersByAttributesRequestDto requestDto) {
+    return fromCallable(() -> idmService.searchUsers(requestDto));
+  }
+
+  @Override
+  public Mono<IdmUsersResponse> searchUsersByRoleAndAttributes(
+      SearchUsersByRoleAndAttributesRequestDto requestDto) {
+    return fromCallable(() -> idmService.searchUsersByRoleAndAttributes(requestDto));
+  }
+
+  @Override
+  public Flux<IdmUser> getUserByUserName(String username) {
+    return fromCallable(() -> idmService.getUserByUserName(username))
+        .flatMapIterable(users -> users);
+  }
+
+  @Override
+  public Mono<Void> saveUserAttribute(String username, String attribute, List<String> values) {
+    return fromRunnable(() -> idmService.saveUserAttribute(username, attribute, values));
+  }
+
+  @Override
+  public Flux<RoleRepresentation> getUserRoles(String username) {
+    return fromCallable(() -> idmService.getUserRoles(username)).flatMapIterable(roles -> roles);
+  }
+
+  @Override
+  public Mono<UserRepresentation> getUserRepresentationByUserName(String username) {
+    return fromCallable(() -> idmService.getUserRepresentationByUserName(username));
+  }
+
+  @Override
+  public Mono<Void> updateUserRepresentation(UserRepresentation user) {
+    return fromRunnable(() -> idmService.updateUserRepresentation(user));
+  }
+
+  @Override
+  public Mono<Void> patchUser(String username, UserPatch patch) {
+    return fromRunnable(() -> idmService.patchUser(username, patch));
+  }
+
+  @Override
+  public Mono<Void> createUserRepresentation(UserRepresentation user,
+      List<RoleRepresentation> roles) {
+    return fromRunnable(() -> idmService.createUserRepresentation(user, roles));
+  }
+
+  @Override
+  public Mono<String> createUser(UserRepresentation user, List<RoleRepresentation> roles) {
+    return fromCallable(() -> idmService.createUser(user, roles));
+  }
+
+  private Mono<Page> searchPage(SearchUsersByAttributesRequestDto requestDto) {
+    return fromCallable(() -> new Page(requestDto, idmService.searchUsers(requestDto)));
+  }
+
+  private <T> Mono<T> fromCallable(Callable<T> callable) {
+    return Mono.fromCallable(callable).subscribeOn(scheduler);
+  }
+
+  private Mono<Void> fromRunnable(Runnable runnable) {
+    return Mono.<Void>fromRunnable(runnable).subscribeOn(scheduler);
+  }
+
+  @RequiredArgsConstructor
+  private static class Page {
+
+    private final SearchUsersByAttributesRequestDto request;
+    private final IdmUsersResponse response;
+  }
+
+  private static class DefaultSchedulerHolder {
+
+    private static final Scheduler SCHEDULER = Schedulers.newBoundedElastic(
+        Schedulers.DEFAULT_BOUNDED_ELASTIC_SIZE, Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE,
+        "idm-client-reactive", 60, true);
+  }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2023 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.integration.idm.service;
+
+import com.epam.digital.data.platform.integration.idm.model.IdmUsersResponse;
+import com.epam.digital.data.platform.integration.idm.model.SearchUsersByAttributesRequestDto;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Continue token pagination of search users by attributes.
+ */
+final class SearchUsersPagination {
+
+  private SearchUsersPagination() {
+  }
+
+  /**
+   * Build request of the page following given one.
+   *
+   * @param request  request of the current page
+   * @param response current page
+   * @return request of the next page or empty if the current page is the last one
+   */
+  static Optional<SearchUsersByAttributesRequestDto> nextPageRequest(
+      SearchUsersByAttributesRequestDto request, IdmUsersResponse response) {
+    var pagination = response.getPagination();
+    if (Objects.isNull(pagination) || Objects.isNull(pagination.getContinueToken())
+        || pagination.getContinueToken() < 0) {
+      return Optional.empty();
+    }
+    var continueToken = pagination.getContinueToken();
+    var requestPagination = request.getPagination();
+    if (Objects.nonNull(requestPagination)
+        && continueToken.equals(requestPagination.getContinueToken())) {
+      return Optional.empty();
+    }
+    return Optional.of(request.withContinueToken(continueToken));
+  }
+}
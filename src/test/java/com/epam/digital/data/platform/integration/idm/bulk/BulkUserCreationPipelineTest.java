@@ -0,0 +1,115 @@
+/*
+ * Copyright 2023 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.integration.idm.bulk;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.epam.digital.data.platform.integration.idm.bulk.UserCreationResult.Status;
+import com.epam.digital.data.platform.integration.idm.exception.KeycloakException;
+import com.epam.digital.data.platform.integration.idm.model.IdmUser;
+import com.epam.digital.data.platform.integration.idm.service.IdmService;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.keycloak.representations.idm.RoleRepresentation;
+import org.keycloak.representations.idm.UserRepresentation;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class BulkUserCreationPipelineTest {
+
+  private final List<RoleRepresentation> roles = List.of(new RoleRepresentation("role", null,
+      false));
+
+  @Mock
+  private IdmService idmService;
+  @TempDir
+  Path tempDir;
+
+  @Test
+  void shouldReportOutcomePerUserAndSkipCompletedOnRestart() throws IOException {
+    var created = item("created");
+    var existing = item("existing");
+    var failed = item("failed");
+    // lenient, since the created user is passed to the same method with other arguments
+    lenient().doThrow(new KeycloakException("conflict")).when(idmService)
+        .createUserRepresentation(existing.getUser(), roles);
+    lenient().doThrow(new KeycloakException("failure")).when(idmService)
+        .createUserRepresentation(failed.getUser(), roles);
+    when(idmService.getUserByUserName("existing"))
+        .thenReturn(List.of(IdmUser.builder().userName("existing").build()));
+    when(idmService.getUserByUserName("failed")).thenReturn(List.of());
+    var checkpointStore = new FileCheckpointStore(tempDir.resolve("checkpoint"));
+    var executor = Executors.newFixedThreadPool(2);
+    BulkUserCreationReport report;
+    try {
+      report = BulkUserCreationPipeline.builder().idmService(idmService).executor(executor)
+          .parallelism(2).checkpointStore(checkpointStore).build()
+          .run(Stream.of(created, existing, failed));
+    } finally {
+      executor.shutdownNow();
+    }
+    checkpointStore.close();
+
+    verify(idmService).addRoles("existing", roles);
+    assertThat(report.count(Status.CREATED)).isOne();
+    assertThat(report.count(Status.RECOVERED)).isOne();
+    assertThat(report.getFailed()).extracting(UserCreationResult::getUsername)
+        .containsExactly("failed");
+    assertThat(checkpointStore.loadCompleted()).containsOnly("created", "existing");
+
+    var restartedReport = BulkUserCreationPipeline.builder().idmService(idmService)
+        .checkpointStore(new FileCheckpointStore(tempDir.resolve("checkpoint"))).build()
+        .run(Stream.of(created));
+
+    assertThat(restartedReport.count(Status.SKIPPED)).isOne();
+    verify(idmService).createUserRepresentation(created.getUser(), roles);
+  }
+
+  @Test
+  void shouldFailUserWhenExistenceCheckFails() {
+    var user = item("user");
+    doThrow(new KeycloakException("conflict")).when(idmService)
+        .createUserRepresentation(user.getUser(), roles);
+    when(idmService.getUserByUserName("user"))
+        .thenThrow(new KeycloakException("Couldn't find users"));
+
+    var report = BulkUserCreationPipeline.builder().idmService(idmService).build()
+        .run(Stream.of(user));
+
+    assertThat(report.getFailed()).extracting(UserCreationResult::getErrorMessage)
+        .containsExactly("Couldn't find users");
+    verify(idmService, never()).addRoles("user", roles);
+  }
+
+  private UserCreationItem item(String username) {
+    var user = new UserRepresentation();
+    user.setUsername(username);
+    return UserCreationItem.builder().user(user).roles(roles).build();
+  }
+}
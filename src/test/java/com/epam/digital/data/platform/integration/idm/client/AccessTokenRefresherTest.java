@@ -0,0 +1,110 @@
+/*
+ * Copyright 2023 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.idm.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.epam.digital.data.platform.integration.idm.metrics.KeycloakClientMetrics;
+import com.epam.digital.data.platform.integration.idm.metrics.KeycloakClientMetrics.RequestObservation;
+import java.time.Duration;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import javax.ws.rs.NotAuthorizedException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.keycloak.admin.client.token.TokenManager;
+import org.keycloak.representations.AccessTokenResponse;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class AccessTokenRefresherTest {
+
+  @Mock
+  private TokenManager tokenManager;
+  @Mock
+  private ScheduledExecutorService scheduler;
+  @Mock
+  private ScheduledFuture<?> refreshTask;
+  @Mock
+  private KeycloakClientMetrics metrics;
+  @Mock
+  private RequestObservation observation;
+
+  private AccessTokenRefresher refresher;
+
+  @BeforeEach
+  void init() {
+    refresher = new AccessTokenRefresher("realm", tokenManager, Duration.ofSeconds(45),
+        Duration.ofSeconds(5), scheduler, metrics);
+  }
+
+  @Test
+  void shouldScheduleNextRefreshBeforeTokenExpiry() {
+    var token = new AccessTokenResponse();
+    token.setExpiresIn(300);
+    when(tokenManager.grantToken()).thenReturn(token);
+    when(metrics.startRequest("realm", "token")).thenReturn(observation);
+
+    refresher.refresh();
+
+    verify(observation).success();
+    verify(scheduler).schedule(any(Runnable.class), eq(255_000L), eq(TimeUnit.MILLISECONDS));
+  }
+
+  @Test
+  void shouldRetryFailedRefresh() {
+    var exception = new NotAuthorizedException("Unauthorized");
+    when(tokenManager.grantToken()).thenThrow(exception);
+    when(metrics.startRequest("realm", "token")).thenReturn(observation);
+
+    refresher.refresh();
+
+    verify(observation).failure(exception);
+    verify(scheduler).schedule(any(Runnable.class), eq(5_000L), eq(TimeUnit.MILLISECONDS));
+  }
+
+  @Test
+  void shouldRefreshShortLivedTokenInTheMiddleOfItsValidity() {
+    assertThat(refresher.nextRefreshDelay(Duration.ofSeconds(40)))
+        .isEqualTo(Duration.ofSeconds(20));
+    assertThat(refresher.nextRefreshDelay(Duration.ofSeconds(4)))
+        .isEqualTo(Duration.ofSeconds(5));
+  }
+
+  @Test
+  void shouldStopRefreshingWhenClosed() {
+    doReturn(refreshTask).when(scheduler).schedule(any(Runnable.class), eq(0L),
+        eq(TimeUnit.MILLISECONDS));
+
+    refresher.start();
+    refresher.close();
+    refresher.refresh();
+
+    verify(refreshTask).cancel(false);
+    verify(tokenManager, never()).grantToken();
+  }
+}
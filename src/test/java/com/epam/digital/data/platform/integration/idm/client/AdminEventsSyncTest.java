@@ -0,0 +1,158 @@
+/*
+ * Copyright 2023 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.idm.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import com.epam.digital.data.platform.integration.idm.model.IdmClientProperties;
+import com.epam.digital.data.platform.integration.idm.replica.UserReplica;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ScheduledExecutorService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.keycloak.representations.idm.AdminEventRepresentation;
+import org.keycloak.representations.idm.UserRepresentation;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class AdminEventsSyncTest {
+
+  private static final long NOW = Instant.parse("2023-01-01T10:00:00Z").toEpochMilli();
+
+  @Mock
+  private KeycloakAdminClient client;
+  @Mock
+  private UserReplica replica;
+  @Mock
+  private ScheduledExecutorService scheduler;
+  @Mock
+  private Clock clock;
+
+  private final AdminEventCursorStore cursorStore = new InMemoryAdminEventCursorStore();
+  private IdmClientProperties.AdminEventsSync properties;
+  private AdminEventsSync sync;
+
+  @BeforeEach
+  void init() {
+    properties = new IdmClientProperties.AdminEventsSync();
+    sync = new AdminEventsSync("realm", replica, cursorStore, properties, scheduler, null, clock);
+    sync.attach(client);
+    when(clock.millis()).thenReturn(NOW);
+  }
+
+  @Test
+  void shouldReloadAllWithoutCursor() {
+    sync.poll();
+
+    verify(replica).reload();
+    verify(client).invalidateRoleCatalog();
+    verify(client).notifyUsersReloaded();
+    assertThat(cursorStore.load("realm")).contains(NOW);
+  }
+
+  @Test
+  void shouldApplyEventsSinceCursor() {
+    cursorStore.save("realm", NOW - 60_000);
+    var user = new UserRepresentation();
+    user.setId("updated-id");
+    when(client.fetchAdminEvents("2022-12-31", 0, 100)).thenReturn(List.of(
+        event(NOW - 1_000, "CREATE", "roles/new-role"),
+        event(NOW - 2_000, "DELETE", "users/deleted-id"),
+        event(NOW - 3_000, "UPDATE", "users/updated-id/role-mappings/realm"),
+        event(NOW - 120_000, "UPDATE", "users/applied-id")));
+    when(client.findUserRepresentation("updated-id")).thenReturn(Optional.of(user));
+    when(client.findUserRepresentation("deleted-id")).thenReturn(Optional.empty());
+    when(client.fetchUserRoleNames("updated-id")).thenReturn(List.of("officer"));
+
+    sync.poll();
+
+    verify(replica).putUser(user, List.of("officer"));
+    verify(replica).removeUser("deleted-id");
+    verify(client).invalidateRoleCatalog();
+    verify(client).notifyUserChanged("updated-id");
+    verify(client).notifyUserChanged("deleted-id");
+    verify(client, never()).notifyUserChanged("applied-id");
+    verify(replica, never()).reload();
+    verify(replica).advanceWatermark(Instant.ofEpochMilli(NOW - 10_000));
+    assertThat(cursorStore.load("realm")).contains(NOW - 10_000);
+  }
+
+  @Test
+  void shouldReloadAllWhenGapIsTooLarge() {
+    properties.setMaxEvents(1);
+    cursorStore.save("realm", NOW - 60_000);
+    when(client.fetchAdminEvents(anyString(), anyInt(), anyInt())).thenReturn(List.of(
+        event(NOW - 1_000, "UPDATE", "users/first-id"),
+        event(NOW - 2_000, "UPDATE", "users/second-id")));
+
+    sync.poll();
+
+    verify(replica).reload();
+    verify(client).notifyUsersReloaded();
+    verify(client, never()).findUserRepresentation(anyString());
+    assertThat(cursorStore.load("realm")).contains(NOW);
+  }
+
+  @Test
+  void shouldNotifyAllAttachedClients() {
+    var otherClient = mock(KeycloakAdminClient.class);
+    sync.attach(otherClient);
+    cursorStore.save("realm", NOW - 60_000);
+    when(client.fetchAdminEvents("2022-12-31", 0, 100)).thenReturn(List.of(
+        event(NOW - 1_000, "UPDATE", "users/updated-id")));
+    when(client.findUserRepresentation("updated-id")).thenReturn(Optional.empty());
+
+    sync.poll();
+
+    verify(client).notifyUserChanged("updated-id");
+    verify(otherClient).notifyUserChanged("updated-id");
+    verifyNoMoreInteractions(otherClient);
+  }
+
+  @Test
+  void shouldSkipPollWithoutClients() {
+    sync.detach(client);
+
+    sync.poll();
+
+    verifyNoInteractions(client, replica);
+    assertThat(cursorStore.load("realm")).isEmpty();
+  }
+
+  private static AdminEventRepresentation event(long time, String operationType,
+      String resourcePath) {
+    var event = new AdminEventRepresentation();
+    event.setTime(time);
+    event.setOperationType(operationType);
+    event.setResourcePath(resourcePath);
+    return event;
+  }
+}
@@ -21,18 +21,30 @@ import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import com.epam.digital.data.platform.integration.idm.exception.KeycloakCircuitBreakerOpenException;
 import com.epam.digital.data.platform.integration.idm.exception.KeycloakException;
+import com.epam.digital.data.platform.integration.idm.metrics.KeycloakClientMetrics;
 import com.epam.digital.data.platform.integration.idm.model.*;
 import com.epam.digital.data.platform.integration.idm.model.SearchUsersByAttributesResponseDto.Pagination;
+import com.epam.digital.data.platform.integration.idm.resilience.KeycloakCircuitBreaker;
+import com.epam.digital.data.platform.integration.idm.resilience.KeycloakRateLimiter;
+import com.epam.digital.data.platform.integration.idm.resilience.KeycloakRetryPolicy;
 import com.epam.digital.data.platform.integration.idm.resource.UsersExtendedResource;
 import java.net.URI;
+import java.time.Duration;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import javax.ws.rs.ServiceUnavailableException;
 import javax.ws.rs.core.Response;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -95,6 +107,17 @@ class KeycloakAdminClientTest {
     assertThat(result).isEqualTo(realmResource);
   }
 
+  @Test
+  void testGetRealmResourceIsMemoized() {
+    when(keycloak.realm(realm)).thenReturn(realmResource);
+
+    client.getRealmResource();
+    var result = client.getRealmResource();
+
+    assertThat(result).isEqualTo(realmResource);
+    verify(keycloak, times(1)).realm(realm);
+  }
+
   @Test
   void testGetKeycloakRoles() {
     var roles = List.of(new RoleRepresentation(role, null, true));
@@ -107,6 +130,53 @@ class KeycloakAdminClientTest {
     assertThat(result.get(0)).isEqualTo(roles.get(0));
   }
 
+  @Test
+  void testGetKeycloakRolesFromRoleCatalog() {
+    var roles = List.of(new RoleRepresentation(role, null, true));
+    var scheduler = Executors.newSingleThreadScheduledExecutor();
+    var cachingClient = KeycloakAdminClient.builder().realm(realm).serverUrl("testUrl")
+        .keycloak(keycloak).roleCatalogRefreshInterval(Duration.ofHours(1)).scheduler(scheduler)
+        .build();
+
+    when(keycloak.realm(realm)).thenReturn(realmResource);
+    when(realmResource.roles()).thenReturn(rolesResource);
+    when(rolesResource.list()).thenReturn(roles);
+
+    cachingClient.getKeycloakRoles(realmResource);
+    var result = cachingClient.getKeycloakRoles(realmResource);
+    var roleRepresentation = cachingClient.getRoleRepresentation(realmResource, role);
+
+    assertThat(result.size()).isOne();
+    assertThat(roleRepresentation).isEqualTo(roles.get(0));
+    verify(rolesResource, times(1)).list();
+    cachingClient.close();
+    scheduler.shutdownNow();
+  }
+
+  @Test
+  void testGetRoleRepresentationMissingInRoleCatalog() {
+    var newRole = new RoleRepresentation("newRole", null, true);
+    var scheduler = Executors.newSingleThreadScheduledExecutor();
+    var cachingClient = KeycloakAdminClient.builder().realm(realm).serverUrl("testUrl")
+        .keycloak(keycloak).roleCatalogRefreshInterval(Duration.ofHours(1)).scheduler(scheduler)
+        .build();
+
+    when(keycloak.realm(realm)).thenReturn(realmResource);
+    when(realmResource.roles()).thenReturn(rolesResource);
+    when(rolesResource.list()).thenReturn(List.of(new RoleRepresentation(role, null, true)))
+        .thenReturn(List.of(new RoleRepresentation(role, null, true), newRole));
+    when(rolesResource.get("newRole")).thenReturn(roleResource);
+    when(roleResource.toRepresentation()).thenReturn(newRole);
+
+    var result = cachingClient.getRoleRepresentation(realmResource, "newRole");
+
+    assertThat(result).isEqualTo(newRole);
+    assertThat(cachingClient.getKeycloakRoles(realmResource).size()).isEqualTo(2);
+    verify(rolesResource, times(2)).list();
+    cachingClient.close();
+    scheduler.shutdownNow();
+  }
+
   @Test
   void testGetUsersRepresentationByUsername() {
     var user = new UserRepresentation();
@@ -149,6 +219,41 @@ class KeycloakAdminClientTest {
     assertThat(result.iterator().next()).isEqualTo(userRep);
   }
 
+  @Test
+  void testGetAllRoleUserMembers() {
+    var executor = Executors.newFixedThreadPool(2);
+    var client = KeycloakAdminClient.builder().realm(realm).serverUrl("testUrl")
+        .keycloak(keycloak).executor(executor).roleMembersPageSize(2).roleMembersParallelism(2)
+        .build();
+    when(realmResource.roles()).thenReturn(rolesResource);
+    when(rolesResource.get(role)).thenReturn(roleResource);
+    when(roleResource.getRoleUserMembers(0, 2)).thenReturn(users("id1", "id2"));
+    when(roleResource.getRoleUserMembers(2, 2)).thenReturn(users("id2", "id3"));
+    when(roleResource.getRoleUserMembers(4, 2)).thenReturn(users("id4"));
+    Mockito.lenient().when(roleResource.getRoleUserMembers(6, 2)).thenReturn(users("id5"));
+
+    var result = client.getAllRoleUserMembers(realmResource, role);
+
+    assertThat(result.stream().map(UserRepresentation::getId).collect(Collectors.toList()))
+        .isEqualTo(List.of("id1", "id2", "id3", "id4"));
+    executor.shutdownNow();
+  }
+
+  @Test
+  void testGetAllRoleUserMembersWithoutExecutor() {
+    var client = KeycloakAdminClient.builder().realm(realm).serverUrl("testUrl")
+        .keycloak(keycloak).roleMembersPageSize(2).build();
+    when(realmResource.roles()).thenReturn(rolesResource);
+    when(rolesResource.get(role)).thenReturn(roleResource);
+    when(roleResource.getRoleUserMembers(0, 2)).thenReturn(users("id1", "id2"));
+    when(roleResource.getRoleUserMembers(2, 2)).thenReturn(Set.of());
+
+    var result = client.getAllRoleUserMembers(realmResource, role);
+
+    assertThat(result.size()).isEqualTo(2);
+    verify(roleResource, times(2)).getRoleUserMembers(Mockito.anyInt(), Mockito.anyInt());
+  }
+
   @Test
   void testGetRoleScopeResource() {
     var userId = "userId";
@@ -191,6 +296,21 @@ class KeycloakAdminClientTest {
     assertThat(result).isEqualTo(token);
   }
 
+  @Test
+  void testTokenFetchIsRecorded() {
+    var metrics = mock(KeycloakClientMetrics.class);
+    var observation = mock(KeycloakClientMetrics.RequestObservation.class);
+    var client = KeycloakAdminClient.builder().realm(realm).serverUrl("testUrl")
+        .keycloak(keycloak).metrics(metrics).build();
+    when(metrics.startRequest(realm, "token")).thenReturn(observation);
+    when(keycloak.tokenManager()).thenReturn(tokenManager);
+    when(tokenManager.getAccessTokenString()).thenReturn("token");
+
+    client.getClientAccessToken();
+
+    verify(observation).success();
+  }
+
   @Test
   void testRealmNotFound() {
     when(keycloak.realm(realm)).thenThrow(RuntimeException.class);
@@ -212,6 +332,59 @@ class KeycloakAdminClientTest {
         String.format("Couldn't add roles [%s] to user", role));
   }
 
+  @Test
+  void testRequestMetricsAreRecorded() {
+    var metrics = mock(KeycloakClientMetrics.class);
+    var observation = mock(KeycloakClientMetrics.RequestObservation.class);
+    when(metrics.startRequest(realm, "addRoles")).thenReturn(observation);
+    var client = KeycloakAdminClient.builder().realm(realm).serverUrl("testUrl")
+        .keycloak(keycloak).metrics(metrics).build();
+    var roles = List.of(new RoleRepresentation(role, null, true));
+    var failure = new RuntimeException();
+    doThrow(failure).when(roleScopeResource).add(roles);
+
+    assertThrows(KeycloakException.class, () -> client.addRoles(roleScopeResource, roles));
+
+    verify(observation).failure(failure);
+  }
+
+  @Test
+  void testProxyCreationIsNotRecordedAsRequest() {
+    var metrics = mock(KeycloakClientMetrics.class);
+    var client = KeycloakAdminClient.builder().realm(realm).serverUrl("testUrl")
+        .keycloak(keycloak).metrics(metrics).build();
+    when(keycloak.realm(realm)).thenReturn(realmResource);
+    when(realmResource.users()).thenReturn(usersResource);
+    when(usersResource.get("userId")).thenReturn(userResource);
+    when(userResource.roles()).thenReturn(roleMappingResource);
+    when(roleMappingResource.realmLevel()).thenReturn(roleScopeResource);
+
+    client.getRealmResource();
+    client.getRoleScopeResource(realmResource, "userId");
+
+    verifyNoInteractions(metrics);
+  }
+
+  @Test
+  void testTransientReadFailureIsRetriedAndMutationIsNot() {
+    var retryProperties = new IdmClientProperties.Retry();
+    retryProperties.setInitialBackoff(Duration.ZERO);
+    var client = KeycloakAdminClient.builder().realm(realm).serverUrl("testUrl")
+        .keycloak(keycloak)
+        .retryPolicy(new KeycloakRetryPolicy(realm, retryProperties, KeycloakClientMetrics.NOOP))
+        .build();
+    var roles = List.of(new RoleRepresentation(role, null, true));
+    when(realmResource.roles()).thenReturn(rolesResource);
+    when(rolesResource.list()).thenThrow(new ServiceUnavailableException()).thenReturn(roles);
+    doThrow(new ServiceUnavailableException()).when(roleScopeResource).add(roles);
+
+    assertThat(client.getKeycloakRoles(realmResource)).isEqualTo(roles);
+    assertThrows(KeycloakException.class, () -> client.addRoles(roleScopeResource, roles));
+
+    verify(rolesResource, times(2)).list();
+    verify(roleScopeResource).add(roles);
+  }
+
   @Test
   void testSearchUsersException() {
     var exception = assertThrows(KeycloakException.class,
@@ -252,6 +425,24 @@ class KeycloakAdminClientTest {
     assertThat(actual).isSameAs(searchResponse);
   }
 
+  @Test
+  void testUsersExtendedResourceProxyIsMemoized() {
+    var searchRequest = SearchUsersByAttributesRequestDto.builder().build();
+    var searchResponse = new SearchUsersByAttributesResponseDto();
+
+    var resource = mock(UsersExtendedResource.class);
+    Mockito.doReturn(resource).when(keycloak)
+        .proxy(UsersExtendedResource.class, URI.create("testUrl"));
+    Mockito.doReturn(searchResponse).when(resource).searchUsersByAttributes(realm, searchRequest);
+
+    client.searchUsersByAttributes(searchRequest);
+    client.searchUsersByRoleAndAttributes(SearchUsersByRoleAndAttributesRequestDto.builder().build());
+    client.searchUsersByAttributes(searchRequest);
+
+    verify(keycloak, times(1)).proxy(UsersExtendedResource.class, URI.create("testUrl"));
+    verify(resource, times(2)).searchUsersByAttributes(realm, searchRequest);
+  }
+
   @Test
   void testSearchUsersByAttributes_exception() {
     var searchRequest = SearchUsersByAttributesRequestDto.builder().build();
@@ -316,6 +507,20 @@ class KeycloakAdminClientTest {
     verify(userResource).update(user);
   }
 
+  @Test
+  void testPatchUserRepresentation() {
+    var userId = "userId";
+    var userRepresentation = new UserRepresentation();
+    when(realmResource.users()).thenReturn(usersResource);
+    when(usersResource.get(userId)).thenReturn(userResource);
+    when(userResource.toRepresentation()).thenReturn(userRepresentation);
+
+    client.patchUserRepresentation(realmResource, userId, user -> user.setEnabled(false));
+
+    verify(userResource).update(userRepresentation);
+    assertThat(userRepresentation.isEnabled()).isFalse();
+  }
+
   @Test
   void testUpdateUserRepresentation() {
     var userId = "userId";
@@ -336,10 +541,13 @@ class KeycloakAdminClientTest {
     when(realmResource.users()).thenReturn(usersResource);
     when(usersResource.create(user)).thenReturn(createUserResponse);
     when(createUserResponse.getStatus()).thenReturn(201);
+    when(createUserResponse.getLocation()).thenReturn(
+        URI.create("http://localhost/admin/realms/testRealm/users/userId"));
 
-    client.createUserRepresentation(realmResource, user);
+    var result = client.createUser(realmResource, user);
     verify(usersResource).create(user);
     verify(createUserResponse).getStatus();
+    assertThat(result).isEqualTo("userId");
   }
 
   @Test
@@ -355,4 +563,56 @@ class KeycloakAdminClientTest {
     assertThat(exception.getMessage()).isEqualTo(
         String.format("Couldn't create user with username: %s", username));
   }
-}
\ No newline at end of file
+
+  @Test
+  void testFailedUserCreationIsCountedByCircuitBreaker() {
+    var circuitBreakerProperties = new IdmClientProperties.CircuitBreaker();
+    circuitBreakerProperties.setSlidingWindowSize(1);
+    circuitBreakerProperties.setMinimumCalls(1);
+    var circuitBreaker = new KeycloakCircuitBreaker("testUrl", realm, circuitBreakerProperties,
+        KeycloakClientMetrics.NOOP);
+    var client = KeycloakAdminClient.builder().realm(realm).serverUrl("testUrl")
+        .keycloak(keycloak).circuitBreaker(circuitBreaker).build();
+    var user = new UserRepresentation();
+    user.setUsername(username);
+    when(realmResource.users()).thenReturn(usersResource);
+    when(usersResource.create(user)).thenReturn(createUserResponse);
+    when(createUserResponse.getStatus()).thenReturn(503);
+
+    assertThrows(KeycloakException.class,
+        () -> client.createUserRepresentation(realmResource, user));
+
+    assertThat(circuitBreaker.getState()).isEqualTo(KeycloakCircuitBreaker.State.OPEN);
+  }
+
+  @Test
+  void testOpenCircuitBreakerRejectsRequestBeforeRateLimiter() {
+    var circuitBreakerProperties = new IdmClientProperties.CircuitBreaker();
+    circuitBreakerProperties.setSlidingWindowSize(1);
+    circuitBreakerProperties.setMinimumCalls(1);
+    var rateLimiter = mock(KeycloakRateLimiter.class);
+    var client = KeycloakAdminClient.builder().realm(realm).serverUrl("testUrl")
+        .keycloak(keycloak).rateLimiter(rateLimiter)
+        .circuitBreaker(new KeycloakCircuitBreaker("testUrl", realm, circuitBreakerProperties,
+            KeycloakClientMetrics.NOOP))
+        .build();
+    var roles = List.of(new RoleRepresentation(role, null, true));
+    doThrow(new ServiceUnavailableException()).when(roleScopeResource).add(roles);
+
+    assertThrows(KeycloakException.class, () -> client.addRoles(roleScopeResource, roles));
+    assertThrows(KeycloakCircuitBreakerOpenException.class,
+        () -> client.addRoles(roleScopeResource, roles));
+
+    verify(rateLimiter, times(1)).acquirePermission("addRoles");
+  }
+
+  private static Set<UserRepresentation> users(String... ids) {
+    var users = new LinkedHashSet<UserRepresentation>();
+    for (var id : ids) {
+      var user = new UserRepresentation();
+      user.setId(id);
+      users.add(user);
+    }
+    return users;
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2023 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.integration.idm.client;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+import com.epam.digital.data.platform.integration.idm.model.IdmClientProperties;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class KeycloakHttpClientPoolTest {
+
+  private KeycloakHttpClientPool pool;
+
+  private HttpServer server;
+
+  @BeforeEach
+  void init() throws IOException {
+    var properties = new IdmClientProperties.ConnectionPool();
+    properties.setMaxTotal(42);
+    properties.setMaxPerRoute(7);
+    properties.setMaxIdleTime(Duration.ofMillis(500));
+    pool = new KeycloakHttpClientPool(properties);
+    server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    server.createContext("/", exchange -> {
+      exchange.getResponseHeaders().add("Content-Type", "text/plain");
+      exchange.sendResponseHeaders(200, 2);
+      try (var body = exchange.getResponseBody()) {
+        body.write("ok".getBytes(StandardCharsets.UTF_8));
+      }
+    });
+    server.start();
+  }
+
+  @AfterEach
+  void tearDown() {
+    pool.close();
+    server.stop(0);
+  }
+
+  @Test
+  void testPoolLimits() {
+    var stats = pool.getTotalStats();
+
+    assertThat(stats.getMax()).isEqualTo(42);
+    assertThat(stats.getLeased()).isZero();
+  }
+
+  @Test
+  void testClosingResteasyClientKeepsPoolOpen() {
+    var first = pool.newResteasyClient();
+    first.close();
+
+    var second = pool.newResteasyClient();
+
+    assertThat(second.isClosed()).isFalse();
+    assertThat(pool.getTotalStats().getMax()).isEqualTo(42);
+    second.close();
+  }
+
+  @Test
+  void testIdleConnectionIsEvicted() throws InterruptedException {
+    var client = pool.newResteasyClient();
+    var response = client.target("http://localhost:" + server.getAddress().getPort()).request()
+        .get(String.class);
+
+    assertThat(response).isEqualTo("ok");
+    assertThat(pool.getTotalStats().getAvailable()).isOne();
+    var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (pool.getTotalStats().getAvailable() > 0 && System.nanoTime() < deadline) {
+      Thread.sleep(50);
+    }
+    assertThat(pool.getTotalStats().getAvailable()).isZero();
+    client.close();
+  }
+}
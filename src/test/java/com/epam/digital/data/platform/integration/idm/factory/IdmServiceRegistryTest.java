@@ -0,0 +1,109 @@
+/*
+ * Copyright 2023 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.integration.idm.factory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import com.epam.digital.data.platform.integration.idm.client.KeycloakAdminClient;
+import com.epam.digital.data.platform.integration.idm.model.IdmClientProperties;
+import com.epam.digital.data.platform.integration.idm.service.IdmService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class IdmServiceRegistryTest {
+
+  private final List<KeycloakAdminClient> createdClients = new ArrayList<>();
+  private ScheduledExecutorService scheduler;
+  private IdmServiceRegistry registry;
+
+  @BeforeEach
+  void init() {
+    scheduler = Executors.newSingleThreadScheduledExecutor();
+    var properties = new IdmClientProperties.Registry();
+    properties.setMaxSize(1);
+    registry = new IdmServiceRegistry(properties, scheduler, (realm, clientId, secret) -> {
+      var client = mock(KeycloakAdminClient.class);
+      createdClients.add(client);
+      return client;
+    }, client -> mock(IdmService.class));
+  }
+
+  @AfterEach
+  void tearDown() {
+    registry.close();
+    scheduler.shutdownNow();
+  }
+
+  @Test
+  void shouldReturnRegisteredService() {
+    var first = registry.acquire("realm", "client", "secret");
+    var second = registry.acquire("realm", "client", "secret");
+
+    assertThat(second).isSameAs(first);
+    assertThat(createdClients).hasSize(1);
+    assertThat(registry.stats().hitCount()).isEqualTo(1);
+    assertThat(registry.stats().missCount()).isEqualTo(1);
+  }
+
+  @Test
+  void shouldRecreateServiceWhenSecretChanged() {
+    var first = registry.acquire("realm", "client", "secret");
+    var second = registry.acquire("realm", "client", "newSecret");
+
+    assertThat(second).isNotSameAs(first);
+    verify(createdClients.get(0)).close();
+    verify(createdClients.get(1), never()).close();
+  }
+
+  @Test
+  void shouldCloseEvictedClient() {
+    registry.acquire("realm", "client", "secret");
+    registry.acquire("otherRealm", "client", "secret");
+
+    verify(createdClients.get(0)).close();
+    assertThat(registry.stats().evictionCount()).isEqualTo(1);
+  }
+
+  @Test
+  void shouldCloseEvictedClientAfterInFlightCall() {
+    registry.execute("realm", "client", "secret", service -> {
+      registry.acquire("otherRealm", "client", "secret");
+      verify(createdClients.get(0), never()).close();
+      return null;
+    });
+
+    verify(createdClients.get(0)).close();
+    assertThat(registry.stats().evictionCount()).isEqualTo(1);
+  }
+
+  @Test
+  void shouldCloseAllClientsOnClose() {
+    registry.acquire("realm", "client", "secret");
+
+    registry.close();
+
+    verify(createdClients.get(0)).close();
+  }
+}
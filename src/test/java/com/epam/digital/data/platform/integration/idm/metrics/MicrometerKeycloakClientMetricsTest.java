@@ -0,0 +1,57 @@
+/*
+ * Copyright 2023 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.integration.idm.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import javax.ws.rs.NotFoundException;
+import org.junit.jupiter.api.Test;
+
+class MicrometerKeycloakClientMetricsTest {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final MicrometerKeycloakClientMetrics metrics =
+      new MicrometerKeycloakClientMetrics(meterRegistry);
+
+  @Test
+  void shouldRecordRequestsByOutcome() {
+    var succeeded = metrics.startRequest("realm", "searchUsers");
+    var failed = metrics.startRequest("realm", "searchUsers");
+
+    assertThat(activeRequests()).isEqualTo(2);
+
+    succeeded.success();
+    failed.failure(new NotFoundException());
+
+    assertThat(activeRequests()).isZero();
+    assertThat(meterRegistry.get(MicrometerKeycloakClientMetrics.REQUESTS_METRIC)
+        .tags("realm", "realm", "operation", "searchUsers", "outcome", "success").timer()
+        .count()).isOne();
+    assertThat(meterRegistry.get(MicrometerKeycloakClientMetrics.REQUESTS_METRIC)
+        .tags("realm", "realm", "operation", "searchUsers", "outcome", "failure").timer()
+        .count()).isOne();
+    assertThat(meterRegistry.get(MicrometerKeycloakClientMetrics.ERRORS_METRIC)
+        .tags("operation", "searchUsers", "cause", "NotFoundException").counter()
+        .count()).isEqualTo(1d);
+  }
+
+  private double activeRequests() {
+    return meterRegistry.get(MicrometerKeycloakClientMetrics.ACTIVE_REQUESTS_METRIC)
+        .tags("realm", "realm", "operation", "searchUsers").gauge().value();
+  }
+}
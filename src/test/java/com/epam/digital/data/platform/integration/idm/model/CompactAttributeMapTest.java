@@ -0,0 +1,102 @@
+/*
+ * Copyright 2023 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.idm.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class CompactAttributeMapTest {
+
+  private final AttributeDictionary dictionary = new AttributeDictionary(2);
+
+  @Test
+  void shouldBeEqualToSourceAttributes() {
+    var attributes = new HashMap<String, List<String>>();
+    attributes.put("fullName", List.of("Петренко Петро Петрович"));
+    attributes.put("drfo", List.of("1010101010"));
+    attributes.put("roles", List.of("officer", "citizen"));
+    attributes.put("empty", List.of());
+
+    var compact = CompactAttributeMap.of(attributes, dictionary);
+
+    assertThat(compact).isEqualTo(attributes).hasSameHashCodeAs(attributes);
+    assertThat(compact.get("roles")).containsExactly("officer", "citizen");
+    assertThat(compact.get("absent")).isNull();
+    assertThat(compact.containsKey("drfo")).isTrue();
+    assertThat(compact.keySet()).containsExactly("drfo", "empty", "fullName", "roles");
+  }
+
+  @Test
+  void shouldShareKeysAndValuesThroughDictionary() {
+    var first = CompactAttributeMap.of(Map.of("edrpou", List.of(new String("11111111"))),
+        dictionary);
+    var second = CompactAttributeMap.of(Map.of("edrpou", List.of(new String("11111111"))),
+        dictionary);
+
+    assertThat(second.keySet().iterator().next()).isSameAs(first.keySet().iterator().next());
+    assertThat(second.get("edrpou").get(0)).isSameAs(first.get("edrpou").get(0));
+  }
+
+  @Test
+  void shouldStopSharingValuesOfKeyWithTooManyDistinctValues() {
+    var values = new ArrayList<String>();
+    for (var value : List.of("1", "2", "3", "3")) {
+      values.add(CompactAttributeMap.of(Map.of("drfo", List.of(new String(value))), dictionary)
+          .get("drfo").get(0));
+    }
+
+    assertThat(values).containsExactly("1", "2", "3", "3");
+    assertThat(values.get(3)).isNotSameAs(values.get(2));
+  }
+
+  @Test
+  void shouldBeReadOnly() {
+    var compact = CompactAttributeMap.of(Map.of("drfo", List.of("1010101010")), dictionary);
+
+    assertThatThrownBy(() -> compact.put("drfo", List.of()))
+        .isInstanceOf(UnsupportedOperationException.class);
+    assertThatThrownBy(() -> compact.get("drfo").add("2020202020"))
+        .isInstanceOf(UnsupportedOperationException.class);
+    assertThatThrownBy(() -> compact.entrySet().iterator().next().setValue(List.of()))
+        .isInstanceOf(UnsupportedOperationException.class);
+  }
+
+  @Test
+  void shouldBeSerializable() throws Exception {
+    var compact = CompactAttributeMap.of(Map.of("roles", List.of("officer", "citizen")),
+        dictionary);
+
+    var bytes = new ByteArrayOutputStream();
+    try (var out = new ObjectOutputStream(bytes)) {
+      out.writeObject(compact);
+    }
+    try (var in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      assertThat(in.readObject()).isEqualTo(compact);
+    }
+  }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2023 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.idm.replica;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.epam.digital.data.platform.integration.idm.metrics.KeycloakClientMetrics;
+import com.epam.digital.data.platform.integration.idm.model.AttributeDictionary;
+import com.epam.digital.data.platform.integration.idm.model.CompactAttributeMap;
+import com.epam.digital.data.platform.integration.idm.model.IdmClientProperties;
+import com.epam.digital.data.platform.integration.idm.model.SearchUsersByAttributesRequestDto;
+import com.epam.digital.data.platform.integration.idm.model.SearchUsersByRoleAndAttributesRequestDto;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.keycloak.representations.idm.UserRepresentation;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class UserReplicaTest {
+
+  private static final Instant LOADED_AT = Instant.parse("2023-01-01T10:00:00Z");
+
+  @Mock
+  private ScheduledExecutorService scheduler;
+  @Mock
+  private KeycloakClientMetrics metrics;
+  @Mock
+  private Clock clock;
+
+  private UserReplica replica;
+  private UserReplicaLoader loader;
+
+  @BeforeEach
+  void init() {
+    var officer = user("officer-id", "officer", Map.of("edrpou", List.of("11111111"),
+        "KATOTTG", List.of("UA01")));
+    var head = user("head-id", "head", Map.of("edrpou", List.of("11111111"),
+        "KATOTTG", List.of("UA0102")));
+    var citizen = user("citizen-id", "citizen", Map.of("drfo", List.of("1234567890")));
+    replica = new UserReplica("realm", new IdmClientProperties.Replica(), scheduler, null, metrics,
+        null, clock);
+    when(clock.instant()).thenReturn(LOADED_AT);
+    loader = new UserReplicaLoader() {
+      @Override
+      public List<UserRepresentation> loadUsers() {
+        return List.of(officer, head, citizen);
+      }
+
+      @Override
+      public Map<String, List<String>> loadRoleMembers() {
+        return Map.of("officer", List.of("officer-id", "head-id"), "head-officer",
+            List.of("head-id"));
+      }
+    };
+    replica.addLoader(loader);
+  }
+
+  @Test
+  void shouldSearchByEqualAttributes() {
+    var result = replica.searchUsers(SearchUsersByAttributesRequestDto.builder()
+        .attributesEquals(Map.of("edrpou", List.of("11111111", "22222222")))
+        .build());
+
+    assertThat(result).hasValueSatisfying(response -> {
+      assertThat(response.getUsers()).extracting(UserRepresentation::getUsername)
+          .containsExactly("officer", "head");
+      assertThat(response.getPagination().getContinueToken()).isEqualTo(-1);
+    });
+    verify(metrics).userReplicaLoaded("realm", LOADED_AT, 3);
+  }
+
+  @Test
+  void shouldSearchByPrefixes() {
+    var startsWith = replica.searchUsers(SearchUsersByAttributesRequestDto.builder()
+        .attributesStartsWith(Map.of("KATOTTG", List.of("UA01")))
+        .build());
+    var startFor = replica.searchUsers(SearchUsersByAttributesRequestDto.builder()
+        .attributesThatAreStartFor(Map.of("KATOTTG", List.of("UA0199")))
+        .build());
+
+    assertThat(startsWith).hasValueSatisfying(response -> assertThat(response.getUsers())
+        .extracting(UserRepresentation::getUsername).containsExactly("officer", "head"));
+    assertThat(startFor).hasValueSatisfying(response -> assertThat(response.getUsers())
+        .extracting(UserRepresentation::getUsername).containsExactly("officer"));
+  }
+
+  @Test
+  void shouldSearchByRoleAndAttributes() {
+    var result = replica.searchUsersByRoleAndAttributes(
+        SearchUsersByRoleAndAttributesRequestDto.builder()
+            .roleName("head-officer")
+            .attributesStartsWith(Map.of("KATOTTG", List.of("UA")))
+            .build());
+
+    assertThat(result).hasValueSatisfying(response -> assertThat(response.getUsers())
+        .extracting(UserRepresentation::getUsername).containsExactly("head"));
+  }
+
+  @Test
+  void shouldNotAnswerPaginatedOrEmptyCriteriaRequests() {
+    var paginated = SearchUsersByAttributesRequestDto.builder()
+        .attributesEquals(Map.of("edrpou", List.of("11111111")))
+        .pagination(SearchUsersByAttributesRequestDto.Pagination.builder().limit(10).build())
+        .build();
+    var emptyCriterion = SearchUsersByAttributesRequestDto.builder()
+        .attributesEquals(Map.of("edrpou", List.of()))
+        .build();
+
+    assertThat(replica.searchUsers(paginated)).isEmpty();
+    assertThat(replica.searchUsers(emptyCriterion)).isEmpty();
+  }
+
+  @Test
+  void shouldKeepContentWithoutLoaders() {
+    replica.removeLoader(loader);
+    replica.reload();
+
+    assertThat(replica.getWatermark()).contains(LOADED_AT);
+  }
+
+  @Test
+  void shouldNotAnswerWhenStale() {
+    when(clock.instant()).thenReturn(LOADED_AT.plus(Duration.ofMinutes(16)));
+
+    var result = replica.searchUsers(SearchUsersByAttributesRequestDto.builder().build());
+
+    assertThat(result).isEmpty();
+    assertThat(replica.getWatermark()).contains(LOADED_AT);
+  }
+
+  @Test
+  void shouldStoreCompactAttributesWithDictionary() {
+    var compactReplica = new UserReplica("realm", new IdmClientProperties.Replica(), scheduler,
+        null, metrics, new AttributeDictionary(new IdmClientProperties.CompactAttributes()), clock);
+    compactReplica.addLoader(loader);
+    compactReplica.putUser(user("new-id", "new", Map.of("edrpou", List.of("11111111"))),
+        List.of("officer"));
+
+    var result = compactReplica.searchUsersByRoleAndAttributes(
+        SearchUsersByRoleAndAttributesRequestDto.builder()
+            .roleName("officer")
+            .attributesEquals(Map.of("edrpou", List.of("11111111")))
+            .build());
+
+    assertThat(result).hasValueSatisfying(response -> {
+      assertThat(response.getUsers()).extracting(UserRepresentation::getUsername)
+          .containsExactly("officer", "head", "new");
+      assertThat(response.getUsers()).allSatisfy(user -> assertThat(user.getAttributes())
+          .isInstanceOf(CompactAttributeMap.class).containsEntry("edrpou", List.of("11111111")));
+    });
+  }
+
+  private static UserRepresentation user(String id, String username,
+      Map<String, List<String>> attributes) {
+    var user = new UserRepresentation();
+    user.setId(id);
+    user.setUsername(username);
+    user.setEnabled(true);
+    user.setAttributes(attributes);
+    return user;
+  }
+}
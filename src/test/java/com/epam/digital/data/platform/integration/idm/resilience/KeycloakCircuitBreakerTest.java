@@ -0,0 +1,146 @@
+/*
+ * Copyright 2023 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.idm.resilience;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.verify;
+
+import com.epam.digital.data.platform.integration.idm.exception.KeycloakCircuitBreakerOpenException;
+import com.epam.digital.data.platform.integration.idm.exception.KeycloakException;
+import com.epam.digital.data.platform.integration.idm.metrics.KeycloakClientMetrics;
+import com.epam.digital.data.platform.integration.idm.model.IdmClientProperties;
+import com.epam.digital.data.platform.integration.idm.resilience.KeycloakCircuitBreaker.State;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.ws.rs.NotFoundException;
+import javax.ws.rs.ProcessingException;
+import javax.ws.rs.ServiceUnavailableException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class KeycloakCircuitBreakerTest {
+
+  @Mock
+  private KeycloakClientMetrics metrics;
+
+  private final AtomicLong nanoTime = new AtomicLong();
+  private KeycloakCircuitBreaker circuitBreaker;
+
+  @BeforeEach
+  void init() {
+    var properties = new IdmClientProperties.CircuitBreaker();
+    properties.setSlidingWindowSize(4);
+    properties.setMinimumCalls(4);
+    properties.setPermittedCallsInHalfOpenState(2);
+    circuitBreaker = new KeycloakCircuitBreaker("http://keycloak", "realm", properties, metrics,
+        nanoTime::get);
+  }
+
+  @Test
+  void shouldOpenWhenFailureRateReachesThreshold() {
+    succeed();
+    succeed();
+    fail(new ProcessingException("Read timed out"));
+    assertThat(circuitBreaker.getState()).isEqualTo(State.CLOSED);
+
+    fail(new KeycloakException("Couldn't find user", new ServiceUnavailableException()));
+
+    assertThat(circuitBreaker.getState()).isEqualTo(State.OPEN);
+    verify(metrics).circuitBreakerStateChanged("realm", State.CLOSED, State.OPEN);
+    assertThatThrownBy(circuitBreaker::acquirePermission)
+        .isInstanceOf(KeycloakCircuitBreakerOpenException.class);
+  }
+
+  @Test
+  void shouldCountSlowCallsAndIgnoreClientErrors() {
+    fail(new NotFoundException());
+    fail(new NotFoundException());
+    var startTime = circuitBreaker.acquirePermission();
+    nanoTime.addAndGet(Duration.ofSeconds(6).toNanos());
+    circuitBreaker.onResult(startTime, null);
+    assertThat(circuitBreaker.getState()).isEqualTo(State.CLOSED);
+
+    startTime = circuitBreaker.acquirePermission();
+    nanoTime.addAndGet(Duration.ofSeconds(6).toNanos());
+    circuitBreaker.onResult(startTime, null);
+
+    assertThat(circuitBreaker.getState()).isEqualTo(State.OPEN);
+  }
+
+  @Test
+  void shouldCloseAfterSuccessfulProbes() {
+    open();
+    nanoTime.addAndGet(Duration.ofSeconds(30).toNanos());
+
+    var firstProbe = circuitBreaker.acquirePermission();
+    var secondProbe = circuitBreaker.acquirePermission();
+    assertThat(circuitBreaker.getState()).isEqualTo(State.HALF_OPEN);
+    assertThatThrownBy(circuitBreaker::acquirePermission)
+        .isInstanceOf(KeycloakCircuitBreakerOpenException.class);
+    circuitBreaker.onResult(firstProbe, null);
+    circuitBreaker.onResult(secondProbe, null);
+
+    assertThat(circuitBreaker.getState()).isEqualTo(State.CLOSED);
+    verify(metrics).circuitBreakerStateChanged("realm", State.HALF_OPEN, State.CLOSED);
+  }
+
+  @Test
+  void shouldReuseReleasedProbeSlot() {
+    open();
+    nanoTime.addAndGet(Duration.ofSeconds(30).toNanos());
+
+    circuitBreaker.acquirePermission();
+    circuitBreaker.acquirePermission();
+    circuitBreaker.releasePermission();
+    succeed();
+
+    assertThat(circuitBreaker.getState()).isEqualTo(State.HALF_OPEN);
+    assertThatThrownBy(circuitBreaker::acquirePermission)
+        .isInstanceOf(KeycloakCircuitBreakerOpenException.class);
+  }
+
+  @Test
+  void shouldOpenAgainOnFailedProbe() {
+    open();
+    nanoTime.addAndGet(Duration.ofSeconds(30).toNanos());
+
+    fail(new ProcessingException("Connection refused"));
+
+    assertThat(circuitBreaker.getState()).isEqualTo(State.OPEN);
+    verify(metrics).circuitBreakerStateChanged("realm", State.HALF_OPEN, State.OPEN);
+  }
+
+  private void open() {
+    for (var i = 0; i < 4; i++) {
+      fail(new ProcessingException("Connection refused"));
+    }
+  }
+
+  private void succeed() {
+    circuitBreaker.onResult(circuitBreaker.acquirePermission(), null);
+  }
+
+  private void fail(Exception exception) {
+    circuitBreaker.onResult(circuitBreaker.acquirePermission(), exception);
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2023 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.idm.resilience;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.epam.digital.data.platform.integration.idm.exception.KeycloakRateLimitExceededException;
+import com.epam.digital.data.platform.integration.idm.metrics.KeycloakClientMetrics;
+import com.epam.digital.data.platform.integration.idm.model.IdmClientProperties;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleSupplier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class KeycloakRateLimiterTest {
+
+  @Mock
+  private KeycloakClientMetrics metrics;
+
+  private IdmClientProperties.RateLimiter properties;
+
+  @BeforeEach
+  void init() {
+    properties = new IdmClientProperties.RateLimiter();
+    properties.setAcquireTimeout(Duration.ZERO);
+  }
+
+  @Test
+  void shouldFailFastWhenOperationLimitIsExceeded() {
+    var operationRateLimit = new IdmClientProperties.OperationRateLimit();
+    operationRateLimit.setPermitsPerSecond(0.1);
+    properties.getOperations().put("saveUserAttribute", operationRateLimit);
+    var rateLimiter = new KeycloakRateLimiter("realm", properties, metrics);
+
+    rateLimiter.acquirePermission("saveUserAttribute");
+
+    assertThatThrownBy(() -> rateLimiter.acquirePermission("saveUserAttribute"))
+        .isInstanceOf(KeycloakRateLimitExceededException.class);
+    assertThatCode(() -> rateLimiter.acquirePermission("getRoles")).doesNotThrowAnyException();
+    verify(metrics).rateLimiterWaited(eq("realm"), eq("saveUserAttribute"), any(Duration.class),
+        eq(false));
+  }
+
+  @Test
+  void shouldFailFastWhenRealmLimitIsExceeded() {
+    properties.setPermitsPerSecond(0.1);
+    var rateLimiter = new KeycloakRateLimiter("realm", properties, metrics);
+
+    rateLimiter.acquirePermission("getRoles");
+
+    assertThatThrownBy(() -> rateLimiter.acquirePermission("searchUsers"))
+        .isInstanceOf(KeycloakRateLimitExceededException.class);
+    verify(metrics).rateLimiterCreated(eq("realm"), eq("realm"), any(DoubleSupplier.class));
+  }
+
+  @Test
+  void shouldNotSpendOperationPermitWhenRealmLimitIsExceeded() {
+    var operationRateLimit = new IdmClientProperties.OperationRateLimit();
+    operationRateLimit.setPermitsPerSecond(0.05);
+    properties.getOperations().put("saveUserAttribute", operationRateLimit);
+    properties.setPermitsPerSecond(0.1);
+    var nanoTime = new AtomicLong();
+    var rateLimiter = new KeycloakRateLimiter("realm", properties, metrics, nanoTime::get);
+
+    rateLimiter.acquirePermission("getRoles");
+    assertThatThrownBy(() -> rateLimiter.acquirePermission("saveUserAttribute"))
+        .isInstanceOf(KeycloakRateLimitExceededException.class);
+    nanoTime.addAndGet(Duration.ofSeconds(10).toNanos());
+
+    assertThatCode(() -> rateLimiter.acquirePermission("saveUserAttribute"))
+        .doesNotThrowAnyException();
+  }
+
+  @Test
+  void shouldWaitForPermitWithinTimeout() {
+    properties.setPermitsPerSecond(20);
+    properties.setAcquireTimeout(Duration.ofSeconds(1));
+    var rateLimiter = new KeycloakRateLimiter("realm", properties, metrics);
+
+    rateLimiter.acquirePermission("getRoles");
+
+    assertThatCode(() -> rateLimiter.acquirePermission("getRoles")).doesNotThrowAnyException();
+    verify(metrics, times(2)).rateLimiterWaited(eq("realm"), eq("getRoles"), any(Duration.class),
+        eq(true));
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2023 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.integration.idm.resilience;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.epam.digital.data.platform.integration.idm.exception.KeycloakCircuitBreakerOpenException;
+import com.epam.digital.data.platform.integration.idm.exception.KeycloakException;
+import com.epam.digital.data.platform.integration.idm.metrics.KeycloakClientMetrics;
+import com.epam.digital.data.platform.integration.idm.model.IdmClientProperties;
+import java.time.Duration;
+import java.util.function.Supplier;
+import javax.ws.rs.InternalServerErrorException;
+import javax.ws.rs.NotFoundException;
+import javax.ws.rs.ProcessingException;
+import javax.ws.rs.ServerErrorException;
+import javax.ws.rs.core.Response;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class KeycloakRetryPolicyTest {
+
+  @Mock
+  private KeycloakClientMetrics metrics;
+  @Mock
+  private Supplier<String> request;
+
+  private IdmClientProperties.Retry properties;
+
+  @BeforeEach
+  void init() {
+    properties = new IdmClientProperties.Retry();
+    properties.setInitialBackoff(Duration.ZERO);
+  }
+
+  @Test
+  void shouldRetryTransientFailure() {
+    var retryPolicy = new KeycloakRetryPolicy("realm", properties, metrics);
+    when(request.get()).thenThrow(new KeycloakException("Couldn't find users",
+        new ServerErrorException(Response.Status.BAD_GATEWAY))).thenReturn("result");
+
+    assertThat(retryPolicy.execute("searchUsers", request)).isEqualTo("result");
+
+    verify(metrics).requestRetried("realm", "searchUsers", true);
+  }
+
+  @Test
+  void shouldStopAfterMaxAttempts() {
+    var retryPolicy = new KeycloakRetryPolicy("realm", properties, metrics);
+    when(request.get()).thenThrow(new ProcessingException("Read timed out"));
+
+    assertThatThrownBy(() -> retryPolicy.execute("getRoles", request))
+        .isInstanceOf(ProcessingException.class);
+
+    verify(request, times(3)).get();
+  }
+
+  @Test
+  void shouldNotRetryNonTransientFailures() {
+    assertThat(KeycloakRetryPolicy.isRetryable(new NotFoundException())).isFalse();
+    assertThat(KeycloakRetryPolicy.isRetryable(new InternalServerErrorException())).isFalse();
+    assertThat(KeycloakRetryPolicy.isRetryable(
+        new KeycloakCircuitBreakerOpenException("Circuit breaker is OPEN"))).isFalse();
+  }
+
+  @Test
+  void shouldNotRetryWhenBudgetIsExhausted() {
+    properties.setBudgetCapacity(1);
+    properties.setBudgetRatio(0);
+    var retryPolicy = new KeycloakRetryPolicy("realm", properties, metrics);
+    when(request.get()).thenThrow(new ServerErrorException(Response.Status.BAD_GATEWAY));
+
+    assertThatThrownBy(() -> retryPolicy.execute("getRoles", request))
+        .isInstanceOf(ServerErrorException.class);
+
+    verify(request, times(2)).get();
+    verify(metrics).requestRetried("realm", "getRoles", false);
+  }
+
+  @Test
+  void shouldLimitBackoffByMaxBackoff() {
+    properties.setInitialBackoff(Duration.ofSeconds(1));
+    var retryPolicy = new KeycloakRetryPolicy("realm", properties, metrics);
+
+    assertThat(retryPolicy.backoff(10)).isBetween(Duration.ZERO, Duration.ofSeconds(2));
+  }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2023 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.integration.idm.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.epam.digital.data.platform.integration.idm.exception.KeycloakException;
+import com.epam.digital.data.platform.integration.idm.model.IdmUser;
+import com.epam.digital.data.platform.integration.idm.model.IdmUsersResponse;
+import com.epam.digital.data.platform.integration.idm.model.SearchUsersByAttributesRequestDto;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.keycloak.representations.idm.RoleRepresentation;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class AsyncKeycloakIdmServiceTest {
+
+  @Mock
+  private IdmService idmService;
+
+  @Test
+  void shouldRunOperationOnExecutor() {
+    var executor = Executors.newSingleThreadExecutor();
+    var asyncIdmService = new AsyncKeycloakIdmService(idmService, executor);
+    var roles = List.of(new RoleRepresentation("role", null, false));
+    when(idmService.getRoleRepresentations()).thenReturn(roles);
+
+    var result = asyncIdmService.getRoleRepresentations().join();
+    asyncIdmService.addRoles("username", roles).join();
+
+    assertThat(result).isEqualTo(roles);
+    verify(idmService).addRoles("username", roles);
+    executor.shutdownNow();
+  }
+
+  @Test
+  void shouldStreamUsersOfAllPages() {
+    var asyncIdmService = new AsyncKeycloakIdmService(idmService, Runnable::run, 1);
+    var first = IdmUser.builder().userName("first").build();
+    var second = IdmUser.builder().userName("second").build();
+    when(idmService.searchUsers(any(SearchUsersByAttributesRequestDto.class)))
+        .thenReturn(page(first, 1), page(second, -1));
+
+    var result = asyncIdmService.streamUsers(SearchUsersByAttributesRequestDto.builder().build())
+        .collect(Collectors.toList());
+
+    assertThat(result).containsExactly(first, second);
+    verify(idmService, times(2)).searchUsers(any(SearchUsersByAttributesRequestDto.class));
+  }
+
+  @Test
+  void shouldNotPrefetchMorePagesThanConfigured() {
+    var asyncIdmService = new AsyncKeycloakIdmService(idmService, Runnable::run, 1);
+    var first = IdmUser.builder().userName("first").build();
+    when(idmService.searchUsers(any(SearchUsersByAttributesRequestDto.class)))
+        .thenReturn(page(first, 1), page(first, 2), page(first, 3));
+
+    try (var users = asyncIdmService.streamUsers(
+        SearchUsersByAttributesRequestDto.builder().build())) {
+      assertThat(users.findFirst()).contains(first);
+    }
+
+    verify(idmService, times(2)).searchUsers(any(SearchUsersByAttributesRequestDto.class));
+  }
+
+  @Test
+  void shouldPrefetchPagesOnPageExecutor() {
+    var asyncIdmService = new AsyncKeycloakIdmService(idmService, command -> {
+      throw new RejectedExecutionException();
+    }, Runnable::run, 1);
+    var first = IdmUser.builder().userName("first").build();
+    when(idmService.searchUsers(any(SearchUsersByAttributesRequestDto.class)))
+        .thenReturn(page(first, -1));
+
+    var result = asyncIdmService.streamUsers(SearchUsersByAttributesRequestDto.builder().build())
+        .collect(Collectors.toList());
+
+    assertThat(result).containsExactly(first);
+  }
+
+  @Test
+  void shouldFailFutureWhenExecutorIsSaturated() {
+    var asyncIdmService = new AsyncKeycloakIdmService(idmService, command -> {
+      throw new RejectedExecutionException();
+    });
+
+    var result = asyncIdmService.getRoles();
+
+    assertThat(result).isCompletedExceptionally();
+    assertThat(result.handle((value, exception) -> exception).join())
+        .isInstanceOf(KeycloakException.class);
+  }
+
+  private static IdmUsersResponse page(IdmUser user, Integer continueToken) {
+    return IdmUsersResponse.builder()
+        .users(List.of(user))
+        .pagination(IdmUsersResponse.Pagination.builder().continueToken(continueToken).build())
+        .build();
+  }
+}
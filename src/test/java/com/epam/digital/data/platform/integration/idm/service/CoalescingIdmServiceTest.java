@@ -0,0 +1,129 @@
+/*
+ * Copyright 2023 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.idm.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.epam.digital.data.platform.integration.idm.exception.KeycloakException;
+import com.epam.digital.data.platform.integration.idm.model.IdmUser;
+import com.epam.digital.data.platform.integration.idm.model.SearchUsersByAttributesRequestDto;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.keycloak.representations.idm.UserRepresentation;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class CoalescingIdmServiceTest {
+
+  @Mock
+  private IdmService idmService;
+
+  @Test
+  void shouldShareInFlightRequestBetweenIdenticalCalls() throws Exception {
+    var coalescingIdmService = new CoalescingIdmService(idmService);
+    var users = List.of(IdmUser.builder().userName("officer").build());
+    var requestStarted = new CountDownLatch(1);
+    var releaseRequest = new CountDownLatch(1);
+    when(idmService.getUserByUserName("officer")).thenAnswer(invocation -> {
+      requestStarted.countDown();
+      releaseRequest.await(5, TimeUnit.SECONDS);
+      return users;
+    });
+    var executor = Executors.newSingleThreadExecutor();
+    try {
+      var first = CompletableFuture.supplyAsync(
+          () -> coalescingIdmService.getUserByUserName("officer"), executor);
+      requestStarted.await(5, TimeUnit.SECONDS);
+      var second = new CompletableFuture<List<IdmUser>>();
+      var secondCaller = new Thread(
+          () -> second.complete(coalescingIdmService.getUserByUserName("officer")));
+      secondCaller.start();
+      awaitJoined(secondCaller);
+      releaseRequest.countDown();
+
+      assertThat(first.get(5, TimeUnit.SECONDS)).isSameAs(users);
+      assertThat(second.get(5, TimeUnit.SECONDS)).isSameAs(users);
+      verify(idmService).getUserByUserName("officer");
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void shouldNotReuseCompletedRequest() {
+    var coalescingIdmService = new CoalescingIdmService(idmService);
+    var request = SearchUsersByAttributesRequestDto.builder()
+        .attributesEquals(Map.of("edrpou", List.of("11111111")))
+        .build();
+    var sameRequest = SearchUsersByAttributesRequestDto.builder()
+        .attributesEquals(Map.of("edrpou", List.of("11111111")))
+        .build();
+
+    coalescingIdmService.searchUsers(request);
+    coalescingIdmService.searchUsers(sameRequest);
+
+    assertThat(request).isEqualTo(sameRequest);
+    verify(idmService, times(2)).searchUsers(any(SearchUsersByAttributesRequestDto.class));
+  }
+
+  @Test
+  void shouldPropagateFailureAndForgetFailedRequest() {
+    var coalescingIdmService = new CoalescingIdmService(idmService);
+    when(idmService.getRoles()).thenThrow(new KeycloakException("Couldn't select roles"))
+        .thenReturn(List.of());
+
+    assertThatThrownBy(coalescingIdmService::getRoles).isInstanceOf(KeycloakException.class);
+    assertThat(coalescingIdmService.getRoles()).isEmpty();
+  }
+
+  @Test
+  void shouldNotCoalesceMutations() {
+    var coalescingIdmService = new CoalescingIdmService(idmService);
+    var user = new UserRepresentation();
+
+    coalescingIdmService.updateUserRepresentation(user);
+    coalescingIdmService.updateUserRepresentation(user);
+
+    verify(idmService, times(2)).updateUserRepresentation(user);
+  }
+
+  /**
+   * Wait until the caller parks joining in-flight request. A caller that has sent its own request
+   * waits on the release latch with timeout instead, so it never becomes {@code WAITING}.
+   */
+  private static void awaitJoined(Thread caller) throws InterruptedException {
+    var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (caller.getState() != Thread.State.WAITING) {
+      assertThat(System.nanoTime()).as("second caller joined in-flight request")
+          .isLessThan(deadline);
+      Thread.sleep(10);
+    }
+  }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2023 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.integration.idm.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.epam.digital.data.platform.integration.idm.exception.KeycloakException;
+import com.epam.digital.data.platform.integration.idm.model.BulkOperationResult;
+import com.epam.digital.data.platform.integration.idm.model.IdmUser;
+import com.epam.digital.data.platform.integration.idm.model.UserPatch;
+import java.util.LinkedHashMap;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.keycloak.representations.idm.RoleRepresentation;
+import org.keycloak.representations.idm.UserRepresentation;
+
+class IdmServiceTest {
+
+  private final List<RoleRepresentation> roles = List.of(new RoleRepresentation("role", null,
+      false));
+
+  private IdmService idmService;
+
+  @BeforeEach
+  void init() {
+    idmService = mock(IdmService.class, CALLS_REAL_METHODS);
+  }
+
+  @Test
+  void assignRolesFallsBackToAddRolesPerUser() {
+    doThrow(new KeycloakException("Couldn't find user")).when(idmService)
+        .addRoles("missing", roles);
+    var rolesByUsername = new LinkedHashMap<String, List<RoleRepresentation>>();
+    rolesByUsername.put("user", roles);
+    rolesByUsername.put("missing", roles);
+
+    var report = idmService.assignRoles(rolesByUsername);
+
+    verify(idmService).addRoles("user", roles);
+    assertThat(report.getResults()).extracting(BulkOperationResult::getUsername)
+        .containsExactly("user", "missing");
+    assertThat(report.getFailed()).extracting(BulkOperationResult::getErrorMessage)
+        .containsExactly("Couldn't find user");
+  }
+
+  @Test
+  void patchUserFallsBackToRepresentationUpdateAndRoleChanges() {
+    var user = new UserRepresentation();
+    when(idmService.getUserRepresentationByUserName("user")).thenReturn(user);
+    var removedRole = new RoleRepresentation("removed", null, false);
+    var patch = UserPatch.builder().putAttribute("edrpou", List.of("11111111")).enabled(false)
+        .addRole(roles.get(0)).removeRole(roles.get(0)).removeRole(removedRole).build();
+
+    idmService.patchUser("user", patch);
+
+    verify(idmService).updateUserRepresentation(user);
+    assertThat(user.getAttributes()).containsEntry("edrpou", List.of("11111111"));
+    assertThat(user.isEnabled()).isFalse();
+    verify(idmService).removeRoles("user", List.of(removedRole));
+    verify(idmService).addRoles("user", roles);
+  }
+
+  @Test
+  void createUserFallsBackToLookupOfCreatedUser() {
+    var user = new UserRepresentation();
+    user.setUsername("user");
+    var createdUser = new UserRepresentation();
+    createdUser.setId("user-id");
+    when(idmService.getUserRepresentationByUserName("user")).thenReturn(createdUser);
+
+    assertThat(idmService.createUser(user, roles)).isEqualTo("user-id");
+    verify(idmService).createUserRepresentation(user, roles);
+  }
+
+  @Test
+  void getAllRoleUserMembersFallsBackToRoleMemberPages() {
+    var first = IdmUser.builder().userName("first").build();
+    var second = IdmUser.builder().userName("second").build();
+    when(idmService.getRoleUserMembers("role", 0, 100)).thenReturn(List.of(first));
+    when(idmService.getRoleUserMembers("role", 100, 100)).thenReturn(List.of(second, first));
+    when(idmService.getRoleUserMembers("role", 200, 100)).thenReturn(List.of());
+
+    assertThat(idmService.getAllRoleUserMembers("role")).containsExactly(first, second);
+  }
+}
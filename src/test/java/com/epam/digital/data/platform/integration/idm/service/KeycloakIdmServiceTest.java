@@ -18,22 +18,32 @@ package com.epam.digital.data.platform.integration.idm.service;
 
 import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.epam.digital.data.platform.integration.idm.cache.UserIdCache;
 import com.epam.digital.data.platform.integration.idm.client.KeycloakAdminClient;
+import com.epam.digital.data.platform.integration.idm.exception.KeycloakException;
 import com.epam.digital.data.platform.integration.idm.mapper.IdmUsersMapper;
+import com.epam.digital.data.platform.integration.idm.model.BulkOperationResult;
+import com.epam.digital.data.platform.integration.idm.model.IdmClientProperties;
+import com.epam.digital.data.platform.integration.idm.model.IdmUser;
 import com.epam.digital.data.platform.integration.idm.model.KeycloakSystemAttribute;
 import com.epam.digital.data.platform.integration.idm.model.SearchUserQuery;
 import com.epam.digital.data.platform.integration.idm.model.SearchUsersByAttributesRequestDto;
 import com.epam.digital.data.platform.integration.idm.model.SearchUsersByAttributesResponseDto;
 import com.epam.digital.data.platform.integration.idm.model.SearchUsersByAttributesResponseDto.Pagination;
+import com.epam.digital.data.platform.integration.idm.model.UserPatch;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executors;
+import javax.ws.rs.NotFoundException;
 import net.bytebuddy.utility.RandomString;
 import org.assertj.core.api.AssertionsForClassTypes;
 import org.assertj.core.api.Assertions;
@@ -161,6 +171,50 @@ class KeycloakIdmServiceTest {
     verify(client, times(0)).getRoleRepresentation(any(), any());
   }
 
+  @Test
+  void addRolesWithCachedUserId() {
+    var cachingService = KeycloakIdmService.builder().client(client).idmUsersMapper(idmUsersMapper)
+        .userIdCache(new UserIdCache(new IdmClientProperties.UserIdCache())).build();
+    var roles = List.of(roleRepresentation);
+
+    when(client.getRealmResource()).thenReturn(realmResource);
+    when(userRepresentation.getId()).thenReturn(TEST_USER_ID);
+    when(client.getUsersRepresentationByUsername(realmResource, TEST_USERNAME)).thenReturn(
+        List.of(userRepresentation));
+    when(client.getRoleScopeResource(realmResource, TEST_USER_ID)).thenReturn(roleScopeResource);
+
+    cachingService.addRoles(TEST_USERNAME, roles);
+    cachingService.addRoles(TEST_USERNAME, roles);
+
+    verify(client, times(1)).getUsersRepresentationByUsername(realmResource, TEST_USERNAME);
+    verify(client, times(2)).addRoles(roleScopeResource, roles);
+  }
+
+  @Test
+  void addRolesWithStaleCachedUserId() {
+    var userIdCache = new UserIdCache(new IdmClientProperties.UserIdCache());
+    userIdCache.put(TEST_USERNAME, "staleUserId");
+    var cachingService = KeycloakIdmService.builder().client(client).idmUsersMapper(idmUsersMapper)
+        .userIdCache(userIdCache).build();
+    var roles = List.of(roleRepresentation);
+    var staleRoleScopeResource = Mockito.mock(RoleScopeResource.class);
+
+    when(client.getRealmResource()).thenReturn(realmResource);
+    when(userRepresentation.getId()).thenReturn(TEST_USER_ID);
+    when(client.getUsersRepresentationByUsername(realmResource, TEST_USERNAME)).thenReturn(
+        List.of(userRepresentation));
+    when(client.getRoleScopeResource(realmResource, "staleUserId"))
+        .thenReturn(staleRoleScopeResource);
+    when(client.getRoleScopeResource(realmResource, TEST_USER_ID)).thenReturn(roleScopeResource);
+    doThrow(new KeycloakException("not found", new NotFoundException())).when(client)
+        .addRoles(staleRoleScopeResource, roles);
+
+    cachingService.addRoles(TEST_USERNAME, roles);
+
+    verify(client).addRoles(roleScopeResource, roles);
+    Assertions.assertThat(userIdCache.get(TEST_USERNAME)).contains(TEST_USER_ID);
+  }
+
   @Test
   void getRoleUserMembers() {
     final var offset = 0;
@@ -176,6 +230,27 @@ class KeycloakIdmServiceTest {
     assertThat(roleUserMembers.get(0).getUserName()).isEqualTo(TEST_USERNAME);
   }
 
+  @Test
+  void getAllRoleUserMembersInOrderOfPages() {
+    var officer = new UserRepresentation();
+    officer.setUsername("officer");
+    officer.setAttributes(Map.of("fullName", List.of("Петренко")));
+    var serviceAccount = new UserRepresentation();
+    serviceAccount.setUsername("service-account");
+    var anotherOfficer = new UserRepresentation();
+    anotherOfficer.setUsername("another-officer");
+    anotherOfficer.setAttributes(Map.of("fullName", List.of("Андрієнко")));
+    when(client.getRealmResource()).thenReturn(realmResource);
+    when(client.getAllRoleUserMembers(realmResource, TEST_ROLE))
+        .thenReturn(List.of(officer, serviceAccount, anotherOfficer));
+
+    var roleUserMembers = service.getAllRoleUserMembers(TEST_ROLE);
+
+    assertThat(roleUserMembers).extracting(IdmUser::getUserName)
+        .containsExactly("officer", "service-account", "another-officer");
+    assertThat(roleUserMembers.get(1).getFullName()).isNull();
+  }
+
   @Test
   void searchUsers() {
     var edr123 = "123";
@@ -243,6 +318,65 @@ class KeycloakIdmServiceTest {
     assertThat(clientAccessToken).isEqualTo(token);
   }
 
+  @Test
+  void assignRolesReportsResultPerUser() {
+    var executor = Executors.newFixedThreadPool(2);
+    var service = KeycloakIdmService.builder().client(client).idmUsersMapper(idmUsersMapper)
+        .executor(executor).bulkParallelism(2).build();
+    var missingUsername = "missingUsername";
+    var roles = List.of(roleRepresentation);
+    var rolesByUsername = new LinkedHashMap<String, List<RoleRepresentation>>();
+    rolesByUsername.put(TEST_USERNAME, roles);
+    rolesByUsername.put(missingUsername, roles);
+
+    when(client.getRealmResource()).thenReturn(realmResource);
+    when(userRepresentation.getId()).thenReturn(TEST_USER_ID);
+    when(client.getUsersRepresentationByUsername(realmResource, TEST_USERNAME)).thenReturn(
+        List.of(userRepresentation));
+    when(client.getUsersRepresentationByUsername(realmResource, missingUsername)).thenReturn(
+        List.of());
+    when(client.getRoleScopeResource(realmResource, TEST_USER_ID)).thenReturn(roleScopeResource);
+
+    var report = service.assignRoles(rolesByUsername);
+
+    verify(client).addRoles(roleScopeResource, roles);
+    assertThat(report.isSucceeded()).isFalse();
+    assertThat(report.getResults()).extracting(BulkOperationResult::getUsername)
+        .containsExactly(TEST_USERNAME, missingUsername);
+    assertThat(report.getFailed()).extracting(BulkOperationResult::getUsername)
+        .containsExactly(missingUsername);
+    executor.shutdownNow();
+  }
+
+  @Test
+  void patchUserAppliesRoleDiff() {
+    var currentRole = new RoleRepresentation("current", null, false);
+    var newRole = new RoleRepresentation("new", null, false);
+    var absentRole = new RoleRepresentation("absent", null, false);
+    var patch = UserPatch.builder()
+        .putAttribute("attribute", List.of("value"))
+        .enabled(false)
+        .addRole(currentRole).addRole(newRole)
+        .removeRole(currentRole).removeRole(absentRole)
+        .build();
+    var obsoleteRole = new RoleRepresentation("obsolete", null, false);
+    var patchWithRemoval = UserPatch.builder().removeRole(obsoleteRole).build();
+
+    when(client.getRealmResource()).thenReturn(realmResource);
+    when(userRepresentation.getId()).thenReturn(TEST_USER_ID);
+    when(client.getUsersRepresentationByUsername(realmResource, TEST_USERNAME)).thenReturn(
+        List.of(userRepresentation));
+    when(client.getRoleScopeResource(realmResource, TEST_USER_ID)).thenReturn(roleScopeResource);
+    when(roleScopeResource.listAll()).thenReturn(List.of(currentRole, obsoleteRole));
+
+    service.patchUser(TEST_USERNAME, patch);
+    service.patchUser(TEST_USERNAME, patchWithRemoval);
+
+    verify(client).patchUserRepresentation(any(), any(), any());
+    verify(client).addRoles(roleScopeResource, List.of(newRole));
+    verify(client).removeRoles(roleScopeResource, List.of(obsoleteRole));
+  }
+
   @Test
   void testSaveAttribute() {
     var userId = "userId";
@@ -293,19 +427,16 @@ class KeycloakIdmServiceTest {
   }
 
   @Test
-  void createUserRepresentation() {
+  void createUser() {
     var roles = List.of(roleRepresentation);
-    var usersList = Collections.singletonList(userRepresentation);
     when(client.getRealmResource()).thenReturn(realmResource);
-    when(userRepresentation.getUsername()).thenReturn(TEST_USERNAME);
-    when(userRepresentation.getId()).thenReturn(TEST_USER_ID);
-    when(client.getUsersRepresentationByUsername(realmResource, TEST_USERNAME)).thenReturn(
-        usersList);
+    when(client.createUser(realmResource, userRepresentation)).thenReturn(TEST_USER_ID);
     when(client.getRoleScopeResource(realmResource, TEST_USER_ID)).thenReturn(roleScopeResource);
 
-    service.createUserRepresentation(userRepresentation, roles);
+    var result = service.createUser(userRepresentation, roles);
 
-    verify(client).createUserRepresentation(realmResource, userRepresentation);
+    assertThat(result).isEqualTo(TEST_USER_ID);
     verify(client).addRoles(roleScopeResource, roles);
+    verify(client, times(0)).getUsersRepresentationByUsername(any(), any());
   }
 }
@@ -18,10 +18,15 @@ package com.epam.digital.data.platform.integration.idm.service;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.epam.digital.data.platform.integration.idm.cache.RealmPublicKeyCache;
 import com.epam.digital.data.platform.integration.idm.client.PublicKeycloakAuthClient;
+import com.epam.digital.data.platform.integration.idm.model.IdmClientProperties;
 import java.security.PublicKey;
+import java.time.Duration;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -54,4 +59,40 @@ class PublicKeycloakIdmServiceTest {
     assertThat(realm.getPublicKey()).isEqualTo(key);
   }
 
-}
\ No newline at end of file
+  @Test
+  void getRealmRepresentationFromCache() {
+    var cachingService = new PublicKeycloakIdmService(publicKeycloakAuthClient,
+        new RealmPublicKeyCache(new IdmClientProperties.PublicKeyCache()));
+    var realmRepresentation = mock(PublishedRealmRepresentation.class);
+    var key = mock(PublicKey.class);
+    when(realmRepresentation.getPublicKey()).thenReturn(key);
+    when(publicKeycloakAuthClient.getRealmRepresentation(realmName)).thenReturn(
+        realmRepresentation);
+
+    cachingService.getRealm(realmName);
+    var realm = cachingService.getRealm(realmName);
+
+    assertThat(realm.getPublicKey()).isEqualTo(key);
+    verify(publicKeycloakAuthClient, times(1)).getRealmRepresentation(realmName);
+  }
+
+  @Test
+  void refreshRealmRepresentation() {
+    var properties = new IdmClientProperties.PublicKeyCache();
+    properties.setMinForcedRefreshInterval(Duration.ZERO);
+    var cachingService = new PublicKeycloakIdmService(publicKeycloakAuthClient,
+        new RealmPublicKeyCache(properties));
+    var oldRealmRepresentation = mock(PublishedRealmRepresentation.class);
+    var newRealmRepresentation = mock(PublishedRealmRepresentation.class);
+    var oldKey = mock(PublicKey.class);
+    var newKey = mock(PublicKey.class);
+    when(oldRealmRepresentation.getPublicKey()).thenReturn(oldKey);
+    when(newRealmRepresentation.getPublicKey()).thenReturn(newKey);
+    when(publicKeycloakAuthClient.getRealmRepresentation(realmName))
+        .thenReturn(oldRealmRepresentation, newRealmRepresentation);
+
+    assertThat(cachingService.getRealm(realmName).getPublicKey()).isEqualTo(oldKey);
+    assertThat(cachingService.refreshRealm(realmName).getPublicKey()).isEqualTo(newKey);
+    assertThat(cachingService.getRealm(realmName).getPublicKey()).isEqualTo(newKey);
+  }
+}
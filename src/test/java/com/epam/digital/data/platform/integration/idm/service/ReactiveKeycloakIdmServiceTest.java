@@ -0,0 +1,103 @@
+/*
+ * Copyright 2023 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.integration.idm.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.epam.digital.data.platform.integration.idm.model.IdmUser;
+import com.epam.digital.data.platform.integration.idm.model.IdmUsersResponse;
+import com.epam.digital.data.platform.integration.idm.model.SearchUsersByAttributesRequestDto;
+import java.util.List;
+import java.util.Objects;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatcher;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.scheduler.Schedulers;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveKeycloakIdmServiceTest {
+
+  @Mock
+  private IdmService idmService;
+
+  @Test
+  void shouldWalkThroughAllSearchPages() {
+    var reactiveIdmService = new ReactiveKeycloakIdmService(idmService, Schedulers.immediate());
+    var request = SearchUsersByAttributesRequestDto.builder()
+        .pagination(SearchUsersByAttributesRequestDto.Pagination.builder().limit(1).build())
+        .build();
+    var first = IdmUser.builder().userName("first").build();
+    var second = IdmUser.builder().userName("second").build();
+    when(idmService.searchUsers(argThat(isPage(null)))).thenReturn(page(first, 1));
+    when(idmService.searchUsers(argThat(isPage(1)))).thenReturn(page(second, -1));
+
+    var result = reactiveIdmService.searchUsers(request).collectList().block();
+
+    assertThat(result).containsExactly(first, second);
+  }
+
+  @Test
+  void shouldNotRequestNextPageWithoutDemand() {
+    var reactiveIdmService = new ReactiveKeycloakIdmService(idmService, Schedulers.immediate());
+    var request = SearchUsersByAttributesRequestDto.builder()
+        .pagination(SearchUsersByAttributesRequestDto.Pagination.builder().limit(1).build())
+        .build();
+    var first = IdmUser.builder().userName("first").build();
+    when(idmService.searchUsers(argThat(isPage(null)))).thenReturn(page(first, 1));
+
+    var result = reactiveIdmService.searchUsers(request).next().block();
+
+    assertThat(result).isEqualTo(first);
+    verify(idmService, never()).searchUsers(argThat(isPage(1)));
+  }
+
+  @Test
+  void shouldSkipPageWithoutUsers() {
+    var reactiveIdmService = new ReactiveKeycloakIdmService(idmService, Schedulers.immediate());
+    var request = SearchUsersByAttributesRequestDto.builder()
+        .pagination(SearchUsersByAttributesRequestDto.Pagination.builder().limit(1).build())
+        .build();
+    var second = IdmUser.builder().userName("second").build();
+    when(idmService.searchUsers(argThat(isPage(null)))).thenReturn(IdmUsersResponse.builder()
+        .pagination(IdmUsersResponse.Pagination.builder().continueToken(1).build())
+        .build());
+    when(idmService.searchUsers(argThat(isPage(1)))).thenReturn(page(second, -1));
+
+    var result = reactiveIdmService.searchUsers(request).collectList().block();
+
+    assertThat(result).containsExactly(second);
+  }
+
+  private static ArgumentMatcher<SearchUsersByAttributesRequestDto> isPage(
+      Integer continueToken) {
+    return request -> Objects.nonNull(request)
+        && Objects.equals(request.getPagination().getContinueToken(), continueToken);
+  }
+
+  private static IdmUsersResponse page(IdmUser user, Integer continueToken) {
+    return IdmUsersResponse.builder()
+        .users(List.of(user))
+        .pagination(IdmUsersResponse.Pagination.builder().continueToken(continueToken).build())
+        .build();
+  }
+}